@@ -0,0 +1,61 @@
+package com.securitysystem.benchmark;
+
+import com.securitysystem.camera.MatImageConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opencv.core.Mat;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// The Mat-to-BufferedImage copy VideoDisplay performs for every displayed frame.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatToImageBenchmark {
+
+    @Param({"640x480", "1280x720", "1920x1080"})
+    public String resolution;
+
+    private Mat frame;
+    private MatImageConverter converter;
+    private BufferedImage reusedImage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticFrames.loadOpenCV();
+        String[] size = resolution.split("x");
+        frame = SyntheticFrames.movingBlockFrame(Integer.parseInt(size[0]), Integer.parseInt(size[1]), 0, 3);
+        converter = new MatImageConverter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        frame.release();
+    }
+
+    @Benchmark
+    public BufferedImage reusedRaster() {
+        reusedImage = converter.toBufferedImage(frame, reusedImage);
+        return reusedImage;
+    }
+
+    @Benchmark
+    public BufferedImage freshImage() {
+        return converter.toBufferedImage(frame, null);
+    }
+}
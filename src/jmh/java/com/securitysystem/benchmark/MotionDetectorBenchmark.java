@@ -0,0 +1,70 @@
+package com.securitysystem.benchmark;
+
+import com.securitysystem.motion.MotionDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opencv.core.Mat;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotionDetectorBenchmark {
+    private static final int FRAME_CYCLE = 16;
+
+    @Param({"320x240", "640x480", "1280x720", "1920x1080"})
+    public String resolution;
+
+    @Param({"1.0", "0.5", "0.25"})
+    public double scale;
+
+    private Mat[] frames;
+    private MotionDetector motionDetector;
+    private int frameIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticFrames.loadOpenCV();
+        String[] size = resolution.split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+
+        frames = new Mat[FRAME_CYCLE];
+        for (int i = 0; i < FRAME_CYCLE; i++) {
+            frames[i] = SyntheticFrames.movingBlockFrame(width, height, i, 7);
+        }
+        motionDetector = new MotionDetector(scale);
+        for (Mat frame : frames) {
+            motionDetector.detectMotion(frame);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Mat frame : frames) {
+            frame.release();
+        }
+        motionDetector.release();
+    }
+
+    @Benchmark
+    public int detect() {
+        Mat frame = frames[frameIndex++ % FRAME_CYCLE];
+        return motionDetector.detect(frame).size();
+    }
+}
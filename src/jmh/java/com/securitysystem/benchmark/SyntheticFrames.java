@@ -0,0 +1,63 @@
+package com.securitysystem.benchmark;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.Random;
+
+final class SyntheticFrames {
+    private static boolean loaded = false;
+
+    private SyntheticFrames() {
+    }
+
+    static synchronized void loadOpenCV() {
+        if (!loaded) {
+            nu.pattern.OpenCV.loadLocally();
+            loaded = true;
+        }
+    }
+
+    // A noisy background with a filled block whose position depends on the frame index, so consecutive frames differ.
+    // The noise is seeded from seed and the frame index, so every run sees the same frames.
+    static Mat movingBlockFrame(int width, int height, int frameIndex, long seed) {
+        Mat frame = new Mat(height, width, CvType.CV_8UC3);
+        Core.setRNGSeed((int) (seed + frameIndex));
+        Core.randu(frame, 90, 110);
+
+        int blockSize = Math.max(16, Math.min(width, height) / 5);
+        int x = (frameIndex * blockSize / 4) % Math.max(1, width - blockSize);
+        int y = height / 2 - blockSize / 2;
+        Imgproc.rectangle(frame, new Point(x, y), new Point(x + blockSize, y + blockSize), new Scalar(20, 200, 240), -1);
+        return frame;
+    }
+
+    // A canned region-layer output: [rows, 5 + classes] floats of background noise plus a few confident boxes.
+    static Mat yoloOutput(int rows, int classes, int candidates, long seed) {
+        Random random = new Random(seed);
+        int cols = 5 + classes;
+        float[] data = new float[rows * cols];
+
+        for (int row = 0; row < rows; row++) {
+            int base = row * cols;
+            data[base] = random.nextFloat();
+            data[base + 1] = random.nextFloat();
+            data[base + 2] = 0.05f + random.nextFloat() * 0.2f;
+            data[base + 3] = 0.05f + random.nextFloat() * 0.2f;
+            data[base + 4] = random.nextFloat() * 0.1f;
+        }
+        for (int i = 0; i < candidates; i++) {
+            int base = random.nextInt(rows) * cols;
+            data[base + 4] = 0.6f + random.nextFloat() * 0.4f;
+            data[base + 5 + random.nextInt(classes)] = data[base + 4] * (0.6f + random.nextFloat() * 0.4f);
+        }
+
+        Mat output = new Mat(rows, cols, CvType.CV_32F);
+        output.put(0, 0, data);
+        return output;
+    }
+}
@@ -0,0 +1,80 @@
+package com.securitysystem.benchmark;
+
+import com.securitysystem.detection.DetectionBatch;
+import com.securitysystem.detection.DetectionClasses;
+import com.securitysystem.detection.ThreatTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreatTrackerBenchmark {
+    private static final int FRAME_CYCLE = 32;
+    private static final int SCENE_SIZE = 4000;
+    private static final long TRACK_TIMEOUT_MS = 60_000;
+
+    @Param({"10", "100", "1000"})
+    public int trackedObjects;
+
+    private List<DetectionBatch> frames;
+    private ThreatTracker threatTracker;
+    private int frameIndex;
+
+    // Objects drift back and forth a few pixels per frame across a large scene, so every frame (including the wrap
+    // from the last frame to the first) matches the previous frame's tracks and the track count stays constant.
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(11);
+        int[] x = new int[trackedObjects];
+        int[] y = new int[trackedObjects];
+        int[] dx = new int[trackedObjects];
+        int[] dy = new int[trackedObjects];
+        for (int i = 0; i < trackedObjects; i++) {
+            x[i] = random.nextInt(SCENE_SIZE);
+            y[i] = random.nextInt(SCENE_SIZE);
+            dx[i] = random.nextInt(9) - 4;
+            dy[i] = random.nextInt(9) - 4;
+        }
+
+        int knife = DetectionClasses.idOf("knife");
+        int scissors = DetectionClasses.idOf("scissors");
+        frames = new ArrayList<>();
+        for (int f = 0; f < FRAME_CYCLE; f++) {
+            int step = f < FRAME_CYCLE / 2 ? f : FRAME_CYCLE - f;
+            DetectionBatch detections = new DetectionBatch(trackedObjects);
+            for (int i = 0; i < trackedObjects; i++) {
+                int classId = i % 2 == 0 ? knife : scissors;
+                detections.add(classId, x[i] + dx[i] * step, y[i] + dy[i] * step, 40, 40, 0.9f);
+            }
+            frames.add(detections);
+        }
+
+        threatTracker = new ThreatTracker(TRACK_TIMEOUT_MS);
+        threatTracker.updateThreats(frames.get(0));
+    }
+
+    @Benchmark
+    public int updateThreats() {
+        threatTracker.updateThreats(frames.get(frameIndex++ % FRAME_CYCLE));
+        return threatTracker.getTrackCount();
+    }
+}
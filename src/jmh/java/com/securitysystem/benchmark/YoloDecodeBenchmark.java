@@ -0,0 +1,75 @@
+package com.securitysystem.benchmark;
+
+import com.securitysystem.detection.YoloOutputDecoder;
+import com.securitysystem.motion.DetectionConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opencv.core.Mat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// YoloOutputDecoder's candidate decode and NMS on canned YOLOv4 outputs; the forward pass is not included.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YoloDecodeBenchmark {
+    private static final int COCO_CLASSES = 80;
+
+    @Param({"320", "416", "608"})
+    public int inputSize;
+
+    @Param({"10", "200"})
+    public int candidates;
+
+    private List<Mat> outputs;
+    private YoloOutputDecoder decoder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticFrames.loadOpenCV();
+        outputs = new ArrayList<>();
+        // YOLOv4 has three region layers at strides 32, 16 and 8 with three anchors each.
+        int[] strides = {32, 16, 8};
+        for (int i = 0; i < strides.length; i++) {
+            int grid = inputSize / strides[i];
+            outputs.add(SyntheticFrames.yoloOutput(grid * grid * 3, COCO_CLASSES, candidates / strides.length, 42 + i));
+        }
+        decoder = new YoloOutputDecoder(DetectionConfig.CONFIDENCE_THRESHOLD, DetectionConfig.NMS_THRESHOLD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Mat output : outputs) {
+            output.release();
+        }
+        decoder.release();
+    }
+
+    @Benchmark
+    public int decode() {
+        decoder.decode(outputs, 0, 1, DetectionConfig.CAMERA_WIDTH, DetectionConfig.CAMERA_HEIGHT, inputSize);
+        return decoder.getCandidateCount();
+    }
+
+    @Benchmark
+    public int decodeAndNms() {
+        decoder.decode(outputs, 0, 1, DetectionConfig.CAMERA_WIDTH, DetectionConfig.CAMERA_HEIGHT, inputSize);
+        return decoder.nonMaxSuppression().length;
+    }
+}
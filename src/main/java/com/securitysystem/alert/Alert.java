@@ -0,0 +1,84 @@
+package com.securitysystem.alert;
+
+import org.opencv.core.Rect;
+
+public class Alert {
+    private final AlertType alertType;
+    private final String sourceName;
+    private final long trackId;
+    private final String objectType;
+    private final double confidence;
+    private final Rect boundingBox;
+    private final long timestamp;
+
+    public Alert(AlertType alertType, String sourceName, long trackId, String objectType,
+                 double confidence, Rect boundingBox, long timestamp) {
+        this.alertType = alertType;
+        this.sourceName = sourceName;
+        this.trackId = trackId;
+        this.objectType = objectType;
+        this.confidence = confidence;
+        this.boundingBox = boundingBox;
+        this.timestamp = timestamp;
+    }
+
+    public AlertType getAlertType() {
+        return alertType;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public long getTrackId() {
+        return trackId;
+    }
+
+    public String getObjectType() {
+        return objectType;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public Rect getBoundingBox() {
+        return boundingBox;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String toJson() {
+        return "{\"type\":\"" + alertType +
+                "\",\"source\":\"" + escape(sourceName) +
+                "\",\"trackId\":" + trackId +
+                ",\"objectType\":\"" + escape(objectType) +
+                "\",\"confidence\":" + String.format("%.3f", confidence) +
+                ",\"box\":{\"x\":" + boundingBox.x + ",\"y\":" + boundingBox.y +
+                ",\"width\":" + boundingBox.width + ",\"height\":" + boundingBox.height +
+                "},\"timestamp\":" + timestamp + "}";
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    @Override
+    public String toString() {
+        return alertType + " on " + sourceName + ": " + objectType + " (track " + trackId +
+                ", confidence " + String.format("%.2f", confidence) + ")";
+    }
+}
@@ -0,0 +1,164 @@
+package com.securitysystem.alert;
+
+import com.securitysystem.detection.DetectionResult;
+import com.securitysystem.detection.ThreatTrackListener;
+import com.securitysystem.motion.DetectionConfig;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Turns threat-track lifecycle events into alerts and delivers them to the sinks on a single background thread.
+// The detection threads only filter and offer to a bounded queue; when the queue is full the alert is dropped
+// and counted rather than ever blocking detection.
+public class AlertDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(AlertDispatcher.class.getName());
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long DRAIN_TIMEOUT_MS = 2000;
+
+    private final List<AlertSink> sinks;
+    private final BlockingQueue<Alert> alertQueue;
+    private final long updateIntervalMs;
+    private final AtomicLong alertsDropped;
+    private final AtomicLong alertsSuppressed;
+    private final Thread dispatcherThread;
+    private volatile boolean running;
+
+    public AlertDispatcher(int queueCapacity, long updateIntervalMs) {
+        this.sinks = new CopyOnWriteArrayList<>();
+        this.alertQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.updateIntervalMs = updateIntervalMs;
+        this.alertsDropped = new AtomicLong();
+        this.alertsSuppressed = new AtomicLong();
+        this.dispatcherThread = new Thread(this::dispatchLoop, "alert-dispatcher");
+        this.dispatcherThread.setDaemon(true);
+        this.running = false;
+    }
+
+    public AlertDispatcher() {
+        this(DetectionConfig.ALERT_QUEUE_CAPACITY, DetectionConfig.ALERT_UPDATE_INTERVAL_MS);
+    }
+
+    public void addSink(AlertSink sink) {
+        sinks.add(sink);
+    }
+
+    public void start() {
+        running = true;
+        dispatcherThread.start();
+    }
+
+    // One listener per pipeline: track ids are only unique within a ThreatTracker, and each listener's
+    // per-track state is confined to that pipeline's detection thread.
+    public ThreatTrackListener listenerFor(String sourceName) {
+        return new TrackAlertFilter(sourceName);
+    }
+
+    private class TrackAlertFilter implements ThreatTrackListener {
+        private final String sourceName;
+        private final Map<Long, Long> lastAlertTimes;
+
+        public TrackAlertFilter(String sourceName) {
+            this.sourceName = sourceName;
+            this.lastAlertTimes = new HashMap<>();
+        }
+
+        @Override
+        public void onTrackStarted(long trackId, DetectionResult detection, long timestamp) {
+            lastAlertTimes.put(trackId, timestamp);
+            enqueue(AlertType.THREAT_STARTED, sourceName, trackId, detection, timestamp);
+        }
+
+        // Repeat sightings of a known track raise at most one reminder per update interval.
+        @Override
+        public void onTrackUpdated(long trackId, DetectionResult detection, long timestamp) {
+            Long lastAlert = lastAlertTimes.get(trackId);
+            if (lastAlert != null && timestamp - lastAlert < updateIntervalMs) {
+                alertsSuppressed.incrementAndGet();
+                return;
+            }
+            lastAlertTimes.put(trackId, timestamp);
+            enqueue(AlertType.THREAT_UPDATED, sourceName, trackId, detection, timestamp);
+        }
+
+        @Override
+        public void onTrackExpired(long trackId, DetectionResult detection, long timestamp) {
+            lastAlertTimes.remove(trackId);
+            enqueue(AlertType.THREAT_ENDED, sourceName, trackId, detection, timestamp);
+        }
+    }
+
+    private void enqueue(AlertType alertType, String sourceName, long trackId, DetectionResult detection, long timestamp) {
+        Alert alert = new Alert(alertType, sourceName, trackId, detection.getObjectType(),
+                detection.getConfidenceScore(), detection.getBoundingBox(), timestamp);
+        if (!running || !alertQueue.offer(alert)) {
+            alertsDropped.incrementAndGet();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            Alert alert;
+            try {
+                alert = alertQueue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (alert != null) {
+                deliver(alert);
+            }
+        }
+    }
+
+    private void deliver(Alert alert) {
+        for (AlertSink sink : sinks) {
+            try {
+                sink.deliver(alert);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warning("Alert sink " + sink.getClass().getSimpleName() + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    public long getAlertsDropped() {
+        return alertsDropped.get();
+    }
+
+    public long getAlertsSuppressed() {
+        return alertsSuppressed.get();
+    }
+
+    // Delivers what is already queued, within a bound, then closes the sinks.
+    public void shutdown() {
+        running = false;
+        try {
+            dispatcherThread.join(DRAIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_TIMEOUT_MS);
+        Alert alert;
+        while (System.nanoTime() < deadline && (alert = alertQueue.poll()) != null) {
+            deliver(alert);
+        }
+        if (!alertQueue.isEmpty()) {
+            LOGGER.warning(alertQueue.size() + " alert(s) not delivered at shutdown");
+        }
+
+        for (AlertSink sink : sinks) {
+            sink.close();
+        }
+        if (alertsDropped.get() > 0) {
+            LOGGER.warning(alertsDropped.get() + " alert(s) dropped because the alert queue was full");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.securitysystem.alert;
+
+import java.io.IOException;
+
+// Sinks are only ever called from the dispatcher thread, so they may block without affecting the pipelines.
+public interface AlertSink {
+
+    void deliver(Alert alert) throws IOException;
+
+    default void close() {
+    }
+}
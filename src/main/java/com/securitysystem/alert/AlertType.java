@@ -0,0 +1,7 @@
+package com.securitysystem.alert;
+
+public enum AlertType {
+    THREAT_STARTED,
+    THREAT_UPDATED,
+    THREAT_ENDED
+}
@@ -0,0 +1,39 @@
+package com.securitysystem.alert;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+// Appends one JSON object per line.
+public class FileAlertSink implements AlertSink {
+    private static final Logger LOGGER = Logger.getLogger(FileAlertSink.class.getName());
+
+    private final Path alertFile;
+    private final BufferedWriter writer;
+
+    public FileAlertSink(Path alertFile) throws IOException {
+        this.alertFile = alertFile;
+        this.writer = Files.newBufferedWriter(alertFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void deliver(Alert alert) throws IOException {
+        writer.write(alert.toJson());
+        writer.newLine();
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close alert file " + alertFile + ": " + e.getMessage());
+        }
+    }
+}
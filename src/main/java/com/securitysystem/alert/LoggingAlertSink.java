@@ -0,0 +1,16 @@
+package com.securitysystem.alert;
+
+import java.util.logging.Logger;
+
+public class LoggingAlertSink implements AlertSink {
+    private static final Logger LOGGER = Logger.getLogger(LoggingAlertSink.class.getName());
+
+    @Override
+    public void deliver(Alert alert) {
+        if (alert.getAlertType() == AlertType.THREAT_ENDED) {
+            LOGGER.info(alert.toString());
+        } else {
+            LOGGER.warning(alert.toString());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.securitysystem.alert;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// POSTs each alert as JSON to a webhook URL.
+public class WebhookAlertSink implements AlertSink {
+    private static final int HTTP_OK_MIN = 200;
+    private static final int HTTP_OK_MAX = 299;
+
+    private final URI webhookUri;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public WebhookAlertSink(URI webhookUri, long timeoutMs) {
+        this.webhookUri = webhookUri;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public void deliver(Alert alert) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(webhookUri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(alert.toJson()))
+                .build();
+
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while posting alert to " + webhookUri, e);
+        }
+
+        if (response.statusCode() < HTTP_OK_MIN || response.statusCode() > HTTP_OK_MAX) {
+            throw new IOException("Webhook " + webhookUri + " returned HTTP " + response.statusCode());
+        }
+    }
+}
@@ -3,47 +3,117 @@ package com.securitysystem.camera;
 import java.util.logging.Logger;
 
 import com.securitysystem.motion.DetectionConfig;
+import org.opencv.core.MatOfInt;
 import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.VideoWriter;
 import org.opencv.videoio.Videoio;
 
+// Opens a camera device and negotiates its capture settings. Settings are requests: backends ignore the ones they
+// do not support, so what the device actually agreed to is logged on every open.
 public class CameraManager {
     private static final Logger LOGGER = Logger.getLogger(CameraManager.class.getName());
 
-    private VideoCapture videoCapture;
+    private final int cameraIndex;
+    private volatile VideoCapture videoCapture;
+    private int frameRate;
+
+    public CameraManager(int cameraIndex) {
+        this.cameraIndex = cameraIndex;
+        this.frameRate = DetectionConfig.CAMERA_FPS;
+
+        if (!openCamera()) {
+            LOGGER.severe("Unable to open camera at index " + cameraIndex);
+            throw new RuntimeException("Failed to initialize camera");
+        }
+    }
 
     public CameraManager() {
-        openCamera();
+        this(DetectionConfig.CAMERA_INDEX);
     }
 
-    private void openCamera() {
-        videoCapture = new VideoCapture(DetectionConfig.CAMERA_INDEX);
+    // Hardware decoding can only be requested at open time; the remaining properties are set afterwards. The pixel
+    // format goes first because some drivers reset the resolution and rate when it changes.
+    private boolean openCamera() {
+        VideoCapture capture;
+        if (DetectionConfig.CAMERA_HW_ACCELERATION != Videoio.VIDEO_ACCELERATION_NONE) {
+            MatOfInt openParams = new MatOfInt(Videoio.CAP_PROP_HW_ACCELERATION, DetectionConfig.CAMERA_HW_ACCELERATION);
+            capture = new VideoCapture(cameraIndex, Videoio.CAP_ANY, openParams);
+            openParams.release();
+        } else {
+            capture = new VideoCapture(cameraIndex);
+        }
 
-        if(!videoCapture.isOpened()) {
-            LOGGER.severe("Unable to open camera at index " + DetectionConfig.CAMERA_INDEX);
-            throw new RuntimeException("Failed to initialize camera");
+        if (!capture.isOpened()) {
+            capture.release();
+            return false;
         }
 
-        videoCapture.set(Videoio.CAP_PROP_FRAME_WIDTH, DetectionConfig.CAMERA_WIDTH);
-        videoCapture.set(Videoio.CAP_PROP_FRAME_HEIGHT, DetectionConfig.CAMERA_HEIGHT);
-        videoCapture.set(Videoio.CAP_PROP_FPS, DetectionConfig.CAMERA_FPS);
+        String fourcc = DetectionConfig.CAMERA_FOURCC;
+        if (fourcc.length() == 4) {
+            capture.set(Videoio.CAP_PROP_FOURCC,
+                    VideoWriter.fourcc(fourcc.charAt(0), fourcc.charAt(1), fourcc.charAt(2), fourcc.charAt(3)));
+        }
+        capture.set(Videoio.CAP_PROP_FRAME_WIDTH, DetectionConfig.CAMERA_WIDTH);
+        capture.set(Videoio.CAP_PROP_FRAME_HEIGHT, DetectionConfig.CAMERA_HEIGHT);
+        capture.set(Videoio.CAP_PROP_FPS, frameRate);
+        capture.set(Videoio.CAP_PROP_BUFFERSIZE, DetectionConfig.CAMERA_BUFFER_SIZE);
+
+        LOGGER.info(String.format("Camera %d opened via %s: %.0fx%.0f @ %.0f fps, format %s, buffer %.0f, hw accel %.0f",
+                cameraIndex,
+                capture.getBackendName(),
+                capture.get(Videoio.CAP_PROP_FRAME_WIDTH),
+                capture.get(Videoio.CAP_PROP_FRAME_HEIGHT),
+                capture.get(Videoio.CAP_PROP_FPS),
+                fourccName(capture.get(Videoio.CAP_PROP_FOURCC)),
+                capture.get(Videoio.CAP_PROP_BUFFERSIZE),
+                capture.get(Videoio.CAP_PROP_HW_ACCELERATION)));
+
+        videoCapture = capture;
+        return true;
+    }
+
+    private static String fourccName(double fourcc) {
+        int code = (int) fourcc;
+        if (code <= 0) {
+            return "default";
+        }
+        return new String(new char[]{
+                (char) (code & 0xFF), (char) ((code >> 8) & 0xFF), (char) ((code >> 16) & 0xFF), (char) ((code >> 24) & 0xFF)});
+    }
+
+    // Drops the current device handle and tries once to open it again; the caller owns the retry policy.
+    public boolean reconnect() {
+        releaseCamera();
+        return openCamera();
+    }
+
+    // Drivers treat this as a request; many cameras only support a few fixed rates. The rate is kept for reopens.
+    public void setFrameRate(int fps) {
+        this.frameRate = fps;
+        if (isOpen()) {
+            videoCapture.set(Videoio.CAP_PROP_FPS, fps);
+        }
+    }
+
+    public int getCameraIndex() {
+        return cameraIndex;
     }
 
     public boolean isOpen() {
-        return videoCapture != null && videoCapture.isOpened();
+        VideoCapture capture = videoCapture;
+        return capture != null && capture.isOpened();
     }
 
+    // Null after a failed reconnect.
     public VideoCapture getVideoCapture() {
-        if(!isOpen()) {
-            openCamera();
-        }
         return videoCapture;
     }
 
     public void releaseCamera() {
-        if (isOpen()) {
-            videoCapture.release();
+        VideoCapture capture = videoCapture;
+        videoCapture = null;
+        if (capture != null && capture.isOpened()) {
+            capture.release();
         }
     }
-
-
 }
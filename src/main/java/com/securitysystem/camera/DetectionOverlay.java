@@ -0,0 +1,68 @@
+package com.securitysystem.camera;
+
+import com.securitysystem.detection.DetectionResult;
+import com.securitysystem.motion.DetectionConfig;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.awt.*;
+import java.util.List;
+
+// The detection boxes and labels every sink draws, so the window and the stream show the same overlay. Threat boxes
+// flash on a cycle driven by the sink's frame counter.
+final class DetectionOverlay {
+    private static final Color THREAT_COLOR = new Color(255, 0, 0);
+    private static final Color THREAT_FLASH_COLOR = new Color(255, 255, 255);
+    private static final Color OBJECT_COLOR = new Color(0, 255, 0);
+    private static final int LINE_THICKNESS = 2;
+    private static final Stroke BOX_STROKE = new BasicStroke(LINE_THICKNESS);
+    private static final Font LABEL_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 14);
+    private static final double LABEL_SCALE = 0.6;
+
+    private DetectionOverlay() {
+    }
+
+    static void draw(Graphics2D graphics, List<DetectionResult> detections, int flashCounter) {
+        graphics.setStroke(BOX_STROKE);
+        graphics.setFont(LABEL_FONT);
+
+        for (DetectionResult detection: detections) {
+            Rect rect = detection.getBoundingBox();
+            graphics.setColor(colorOf(detection, flashCounter));
+            graphics.drawRect(rect.x, rect.y, rect.width, rect.height);
+            graphics.drawString(labelOf(detection), rect.x, labelY(rect));
+        }
+    }
+
+    static void draw(Mat frame, List<DetectionResult> detections, int flashCounter) {
+        for (DetectionResult detection: detections) {
+            Rect rect = detection.getBoundingBox();
+            Color color = colorOf(detection, flashCounter);
+            Scalar bgr = new Scalar(color.getBlue(), color.getGreen(), color.getRed());
+            Imgproc.rectangle(frame, rect.tl(), rect.br(), bgr, LINE_THICKNESS);
+            Imgproc.putText(frame, labelOf(detection), new Point(rect.x, labelY(rect)),
+                    Imgproc.FONT_HERSHEY_SIMPLEX, LABEL_SCALE, bgr, LINE_THICKNESS);
+        }
+    }
+
+    private static Color colorOf(DetectionResult detection, int flashCounter) {
+        if (!detection.isThreat()) {
+            return OBJECT_COLOR;
+        }
+        if (flashCounter % DetectionConfig.FLASH_CYCLE_FRAMES < DetectionConfig.FLASH_CYCLE_FRAMES / 2) {
+            return THREAT_COLOR;
+        }
+        return THREAT_FLASH_COLOR;
+    }
+
+    private static String labelOf(DetectionResult detection) {
+        return detection.getObjectType() + " " + String.format("%.2f", detection.getConfidenceScore());
+    }
+
+    private static int labelY(Rect rect) {
+        return Math.max(rect.y - 10, 15);
+    }
+}
@@ -1,30 +1,212 @@
 package com.securitysystem.camera;
 
+import com.securitysystem.memory.MatScope;
+import com.securitysystem.motion.DetectionConfig;
 import org.opencv.core.Mat;
 import org.opencv.videoio.VideoCapture;
+
 import java.util.Optional;
+import java.util.logging.Logger;
+
+// Live camera source. A dedicated grab thread drains the device as fast as it delivers, so the driver's queue never
+// holds stale frames, and keeps only the newest one. Three Mats rotate between the grabber and the consumer: the
+// grabber decodes into its own, then swaps it with the shared latest frame; the consumer swaps the latest frame for
+// the one it returned last time. Neither side copies pixels or waits on the other's decode.
+//
+// When the device stops delivering, the grabber reconnects with exponential backoff while captureFrame keeps timing
+// out, so the capture stage stays responsive through an outage.
+public class FrameCapture implements FrameSource {
+    private static final Logger LOGGER = Logger.getLogger(FrameCapture.class.getName());
 
-public class FrameCapture {
     private final CameraManager cameraManager;
-    private final Mat matFrame;
+    private final Object frameLock;
+    private final Thread grabThread;
+    private final MatScope frameBuffers;
+    private Mat grabbedFrame;
+    private Mat latestFrame;
+    private Mat matFrame;
+    private long latestTimestamp;
+    private long latestSequence;
+    private long consumedSequence;
+    private long framesOverwritten;
+    private long frameTimestamp;
+    private volatile int requestedFrameRate;
+    private volatile boolean running;
 
     public FrameCapture(CameraManager cameraManager) {
         this.cameraManager = cameraManager;
-        this.matFrame = new Mat();
+        this.frameLock = new Object();
+        this.frameBuffers = new MatScope();
+        this.grabbedFrame = frameBuffers.newMat();
+        this.latestFrame = frameBuffers.newMat();
+        this.matFrame = frameBuffers.newMat();
+        this.latestSequence = 0;
+        this.consumedSequence = 0;
+        this.framesOverwritten = 0;
+        this.requestedFrameRate = -1;
+        this.running = true;
+        this.grabThread = new Thread(this::grabLoop, "frame-grabber-" + cameraManager.getCameraIndex());
+        this.grabThread.setDaemon(true);
+        this.grabThread.start();
     }
 
+    private void grabLoop() {
+        int consecutiveFailures = 0;
+        long reconnectDelayMs = DetectionConfig.CAMERA_RECONNECT_INITIAL_MS;
+
+        while (running) {
+            VideoCapture videoCapture = cameraManager.getVideoCapture();
+            if (videoCapture == null || !videoCapture.isOpened()) {
+                if (!awaitReconnect(reconnectDelayMs)) {
+                    break;
+                }
+                if (cameraManager.reconnect()) {
+                    LOGGER.info(getName() + " reconnected");
+                    reconnectDelayMs = DetectionConfig.CAMERA_RECONNECT_INITIAL_MS;
+                    consecutiveFailures = 0;
+                } else {
+                    reconnectDelayMs = Math.min(reconnectDelayMs * 2, DetectionConfig.CAMERA_RECONNECT_MAX_MS);
+                    LOGGER.warning(getName() + " reconnect failed - retrying in " + reconnectDelayMs + " ms");
+                }
+                continue;
+            }
+
+            int frameRate = requestedFrameRate;
+            if (frameRate > 0) {
+                requestedFrameRate = -1;
+                cameraManager.setFrameRate(frameRate);
+            }
+
+            // grab() returns as soon as the driver has the frame; the timestamp is taken there, before the decode.
+            if (!videoCapture.grab()) {
+                if (++consecutiveFailures >= DetectionConfig.CAMERA_MAX_GRAB_FAILURES) {
+                    LOGGER.warning(getName() + " stopped delivering frames - reconnecting");
+                    cameraManager.releaseCamera();
+                    consecutiveFailures = 0;
+                }
+                continue;
+            }
+            long timestamp = System.currentTimeMillis();
+            if (!videoCapture.retrieve(grabbedFrame) || grabbedFrame.empty()) {
+                continue;
+            }
+            consecutiveFailures = 0;
+
+            synchronized (frameLock) {
+                Mat previous = latestFrame;
+                latestFrame = grabbedFrame;
+                grabbedFrame = previous;
+                latestTimestamp = timestamp;
+                if (latestSequence > consumedSequence) {
+                    framesOverwritten++;
+                }
+                latestSequence++;
+                frameLock.notifyAll();
+            }
+        }
+    }
+
+    // Sleeps out the backoff delay unless the source is released first.
+    private boolean awaitReconnect(long delayMs) {
+        long deadline = System.currentTimeMillis() + delayMs;
+        synchronized (frameLock) {
+            long remaining;
+            while (running && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    frameLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return running;
+    }
+
+    // Waits up to CAMERA_FRAME_TIMEOUT_MS for a frame newer than the last one returned, so no frame is seen twice.
+    @Override
     public Optional<Mat> captureFrame() {
-        VideoCapture videoCapture = cameraManager.getVideoCapture();
+        long deadline = System.currentTimeMillis() + DetectionConfig.CAMERA_FRAME_TIMEOUT_MS;
 
-        if (videoCapture != null && videoCapture.isOpened()) {
-            if (videoCapture.read(matFrame)) {
-                return Optional.of(matFrame);
+        synchronized (frameLock) {
+            long remaining;
+            while (running && latestSequence == consumedSequence &&
+                    (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    frameLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return Optional.empty();
+                }
+            }
+            if (!running || latestSequence == consumedSequence) {
+                return Optional.empty();
             }
+
+            Mat previous = matFrame;
+            matFrame = latestFrame;
+            latestFrame = previous;
+            frameTimestamp = latestTimestamp;
+            consumedSequence = latestSequence;
+        }
+        return Optional.of(matFrame);
+    }
+
+    @Override
+    public long getFrameTimestamp() {
+        return frameTimestamp;
+    }
+
+    // Frames the grabber replaced before anyone took them, i.e. how far the consumer is falling behind the camera.
+    public long getFramesOverwritten() {
+        synchronized (frameLock) {
+            return framesOverwritten;
         }
-        return Optional.empty();
     }
 
+    // The source stays open through a reconnect; only release closes it.
+    @Override
+    public boolean isOpen() {
+        return running;
+    }
+
+    @Override
+    public boolean isLive() {
+        return true;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return false;
+    }
+
+    // Applied by the grab thread between frames, so the device is only ever touched from that thread.
+    @Override
+    public void setFrameRate(int fps) {
+        requestedFrameRate = fps;
+    }
+
+    @Override
+    public String getName() {
+        return "Camera " + cameraManager.getCameraIndex();
+    }
+
+    @Override
     public void release() {
-        matFrame.release();
+        synchronized (frameLock) {
+            running = false;
+            frameLock.notifyAll();
+        }
+        try {
+            grabThread.join(DetectionConfig.CAMERA_FRAME_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (grabThread.isAlive()) {
+            LOGGER.warning(getName() + " grab thread did not stop - leaving the device open");
+            return;
+        }
+        cameraManager.releaseCamera();
+        frameBuffers.close();
     }
 }
@@ -0,0 +1,19 @@
+package com.securitysystem.camera;
+
+import com.securitysystem.detection.DetectionResult;
+import org.opencv.core.Mat;
+
+import java.util.List;
+
+public interface FrameSink {
+
+    void showFrame(Mat matFrame);
+
+    // The frame and the detections are only valid during the call; sinks that work asynchronously must draw or copy
+    // what they need before returning.
+    void showFrameWithDetections(Mat matFrame, List<DetectionResult> detections);
+
+    long getDroppedFrames();
+
+    void close();
+}
@@ -0,0 +1,7 @@
+package com.securitysystem.camera;
+
+public enum FrameSinkType {
+    SWING,
+    MJPEG,
+    NONE
+}
@@ -0,0 +1,29 @@
+package com.securitysystem.camera;
+
+import org.opencv.core.Mat;
+
+import java.util.Optional;
+
+public interface FrameSource {
+
+    // The returned Mat is owned by the source and is only valid until the next call.
+    Optional<Mat> captureFrame();
+
+    // Timestamp in milliseconds of the frame last returned by captureFrame, on the source's own timeline.
+    long getFrameTimestamp();
+
+    boolean isOpen();
+
+    // Live sources produce frames in real time and never run out; recorded sources end.
+    boolean isLive();
+
+    boolean isExhausted();
+
+    String getName();
+
+    // Live sources pass the rate on to the device; recorded sources keep their own timeline.
+    default void setFrameRate(int fps) {
+    }
+
+    void release();
+}
@@ -0,0 +1,122 @@
+package com.securitysystem.camera;
+
+import com.securitysystem.memory.MatScope;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Replays a directory of still images in file-name order, spaced at a fixed frame rate.
+public class ImageSequenceSource implements FrameSource {
+    private static final Logger LOGGER = Logger.getLogger(ImageSequenceSource.class.getName());
+    private static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".bmp", ".tif", ".tiff"};
+
+    private final Path directory;
+    private final List<Path> imagePaths;
+    private final double frameIntervalMs;
+    private final MatScope frameBuffers;
+    private final MatScope decodeScope;
+    private final Mat matFrame;
+    private int nextIndex;
+    private long frameTimestamp;
+
+    public ImageSequenceSource(Path directory, double fps) {
+        if (fps <= 0) {
+            throw new IllegalArgumentException("Image sequence frame rate must be positive");
+        }
+        this.directory = directory;
+        this.imagePaths = listImages(directory);
+        this.frameIntervalMs = 1000.0 / fps;
+        this.frameBuffers = new MatScope();
+        this.decodeScope = new MatScope();
+        this.matFrame = frameBuffers.newMat();
+        this.nextIndex = 0;
+        this.frameTimestamp = 0;
+
+        if (imagePaths.isEmpty()) {
+            LOGGER.warning("No images found in " + directory);
+        }
+    }
+
+    private static List<Path> listImages(Path directory) {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.filter(Files::isRegularFile)
+                    .filter(ImageSequenceSource::isImage)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            LOGGER.severe("Unable to list image directory " + directory);
+            throw new RuntimeException("Failed to open image sequence: " + directory, e);
+        }
+    }
+
+    private static boolean isImage(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Unreadable files are skipped, but still advance the timeline so later frames keep their spacing. imread always
+    // returns a new Mat, so the decoded image is copied into the reused frame and released straight away.
+    @Override
+    public Optional<Mat> captureFrame() {
+        while (nextIndex < imagePaths.size()) {
+            int index = nextIndex++;
+            try (MatScope scope = decodeScope) {
+                Mat image = scope.track(Imgcodecs.imread(imagePaths.get(index).toString(), Imgcodecs.IMREAD_COLOR));
+
+                if (image.empty()) {
+                    LOGGER.warning("Skipping unreadable image " + imagePaths.get(index));
+                    continue;
+                }
+
+                image.copyTo(matFrame);
+            }
+            frameTimestamp = Math.round(index * frameIntervalMs);
+            return Optional.of(matFrame);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public long getFrameTimestamp() {
+        return frameTimestamp;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public boolean isLive() {
+        return false;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return nextIndex >= imagePaths.size();
+    }
+
+    @Override
+    public String getName() {
+        return directory.getFileName().toString();
+    }
+
+    @Override
+    public void release() {
+        frameBuffers.close();
+    }
+}
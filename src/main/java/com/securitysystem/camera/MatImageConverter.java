@@ -0,0 +1,39 @@
+package com.securitysystem.camera;
+
+import org.opencv.core.Mat;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+// Holds the row buffer used for non-continuous Mats, so an instance belongs to a single thread.
+public class MatImageConverter {
+    private byte[] rowPixels = new byte[0];
+
+    // Copies the Mat straight into the image's raster, reusing the image when its size and type still match.
+    public BufferedImage toBufferedImage(Mat mat, BufferedImage reuse) {
+        int width = mat.cols();
+        int height = mat.rows();
+        int imageType = mat.channels() == 3 ? BufferedImage.TYPE_3BYTE_BGR : BufferedImage.TYPE_BYTE_GRAY;
+
+        BufferedImage image = reuse;
+        if (image == null || image.getWidth() != width ||
+                image.getHeight() != height || image.getType() != imageType) {
+            image = new BufferedImage(width, height, imageType);
+        }
+
+        byte[] targetPixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        if (mat.isContinuous()) {
+            mat.get(0, 0, targetPixels);
+        } else {
+            int rowBytes = width * mat.channels();
+            if (rowPixels.length != rowBytes) {
+                rowPixels = new byte[rowBytes];
+            }
+            for (int row = 0; row < height; row++) {
+                mat.get(row, 0, rowPixels);
+                System.arraycopy(rowPixels, 0, targetPixels, row * rowBytes, rowBytes);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,226 @@
+package com.securitysystem.camera;
+
+import com.securitysystem.detection.DetectionResult;
+import com.securitysystem.memory.MatPool;
+import com.securitysystem.motion.DetectionConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+public class MjpegStreamSink implements FrameSink {
+    private static final Logger LOGGER = Logger.getLogger(MjpegStreamSink.class.getName());
+    private static final String BOUNDARY = "frame";
+    private static final long CLIENT_WAIT_TIMEOUT_MS = 1000;
+    private static final long ENCODER_SHUTDOWN_TIMEOUT_MS = 2000;
+
+    private final HttpServer httpServer;
+    private final ExecutorService clientPool;
+    private final ExecutorService encoderPool;
+    private final MatPool encodePool;
+    private final MatOfInt encodeParams;
+    private final int encoderThreads;
+    private final AtomicInteger connectedClients;
+    private final AtomicInteger encodesInFlight;
+    private final AtomicLong droppedFrames;
+    private final Object jpegLock;
+    private byte[] latestJpeg;
+    private long latestSequence;
+    private long latestFrameNumber;
+    private long submittedFrames;
+    private volatile boolean open;
+    private int counter = 0;
+
+    public MjpegStreamSink(int port) {
+        this(port, DetectionConfig.MJPEG_ENCODER_THREADS, DetectionConfig.MJPEG_JPEG_QUALITY);
+    }
+
+    public MjpegStreamSink(int port, int encoderThreads, int jpegQuality) {
+        this.encoderThreads = encoderThreads;
+        this.encoderPool = Executors.newFixedThreadPool(encoderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "mjpeg-encoder-" + port);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.encodePool = new MatPool(encoderThreads);
+        this.encodeParams = new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, jpegQuality);
+        this.connectedClients = new AtomicInteger();
+        this.encodesInFlight = new AtomicInteger();
+        this.droppedFrames = new AtomicLong();
+        this.jpegLock = new Object();
+        this.latestSequence = 0;
+        this.open = true;
+
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(DetectionConfig.MJPEG_BIND_ADDRESS, port), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start MJPEG server on port " + port, e);
+        }
+        this.clientPool = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mjpeg-client-" + port);
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.createContext("/stream", this::streamToClient);
+        httpServer.setExecutor(clientPool);
+        httpServer.start();
+        LOGGER.info("MJPEG stream available at http://" + DetectionConfig.MJPEG_BIND_ADDRESS + ":" + port + "/stream");
+    }
+
+    public int getConnectedClients() {
+        return connectedClients.get();
+    }
+
+    @Override
+    public void showFrame(Mat matFrame) {
+        showFrameWithDetections(matFrame, List.of());
+    }
+
+    @Override
+    public void showFrameWithDetections(Mat matFrame, List<DetectionResult> detections) {
+        if (matFrame == null || matFrame.empty()) {
+            return;
+        }
+
+        counter++;
+
+        if (connectedClients.get() == 0) {
+            return;
+        }
+
+        if (encodesInFlight.incrementAndGet() > encoderThreads) {
+            encodesInFlight.decrementAndGet();
+            droppedFrames.incrementAndGet();
+            return;
+        }
+
+        // The detections are only valid during this call, so the overlay is drawn here and only the encode is handed off.
+        long frameNumber = ++submittedFrames;
+        Mat encodeFrame = encodePool.copyOf(matFrame);
+        try {
+            DetectionOverlay.draw(encodeFrame, detections, counter);
+        } catch (RuntimeException e) {
+            encodePool.release(encodeFrame);
+            encodesInFlight.decrementAndGet();
+            throw e;
+        }
+        encoderPool.execute(() -> {
+            try {
+                publish(encode(encodeFrame), frameNumber);
+            } catch (RuntimeException e) {
+                LOGGER.warning("MJPEG encode failed: " + e.getMessage());
+            } finally {
+                encodePool.release(encodeFrame);
+                encodesInFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private byte[] encode(Mat frame) {
+        MatOfByte jpegBuffer = new MatOfByte();
+        try {
+            Imgcodecs.imencode(".jpg", frame, jpegBuffer, encodeParams);
+            return jpegBuffer.toArray();
+        } finally {
+            jpegBuffer.release();
+        }
+    }
+
+    // Encoders can finish out of order; an encode older than the published frame is dropped so the stream never steps
+    // backwards.
+    private void publish(byte[] jpeg, long frameNumber) {
+        synchronized (jpegLock) {
+            if (frameNumber <= latestFrameNumber) {
+                droppedFrames.incrementAndGet();
+                return;
+            }
+            latestFrameNumber = frameNumber;
+            latestJpeg = jpeg;
+            latestSequence++;
+            jpegLock.notifyAll();
+        }
+    }
+
+    private void streamToClient(HttpExchange exchange) throws IOException {
+        connectedClients.incrementAndGet();
+        LOGGER.info("MJPEG client connected from " + exchange.getRemoteAddress());
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "multipart/x-mixed-replace; boundary=" + BOUNDARY);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+
+            long sentSequence = 0;
+            while (open) {
+                byte[] jpeg;
+                synchronized (jpegLock) {
+                    while (open && latestSequence == sentSequence) {
+                        jpegLock.wait(CLIENT_WAIT_TIMEOUT_MS);
+                    }
+                    jpeg = latestJpeg;
+                    sentSequence = latestSequence;
+                }
+                if (jpeg == null) {
+                    continue;
+                }
+
+                String partHeader = "--" + BOUNDARY + "\r\nContent-Type: image/jpeg\r\nContent-Length: " + jpeg.length + "\r\n\r\n";
+                out.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+                out.write(jpeg);
+                out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.info("MJPEG client disconnected: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connectedClients.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        synchronized (jpegLock) {
+            jpegLock.notifyAll();
+        }
+        httpServer.stop(0);
+        clientPool.shutdown();
+        encoderPool.shutdown();
+
+        // Queued and running encodes still use encodeParams and return frames to encodePool, so the native objects
+        // are freed only once the encoders have finished; if they do not, leaking them beats a use-after-free.
+        try {
+            if (!encoderPool.awaitTermination(ENCODER_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warning("MJPEG encoders did not stop - leaving their buffers allocated");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        encodePool.clear();
+        encodeParams.release();
+    }
+}
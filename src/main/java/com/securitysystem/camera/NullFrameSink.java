@@ -0,0 +1,26 @@
+package com.securitysystem.camera;
+
+import com.securitysystem.detection.DetectionResult;
+import org.opencv.core.Mat;
+
+import java.util.List;
+
+public class NullFrameSink implements FrameSink {
+
+    @Override
+    public void showFrame(Mat matFrame) {
+    }
+
+    @Override
+    public void showFrameWithDetections(Mat matFrame, List<DetectionResult> detections) {
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return 0;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,8 @@
+package com.securitysystem.camera;
+
+public enum ReplayMode {
+    // Recorded frames are processed as fast as the pipeline can take them.
+    UNTHROTTLED,
+    // Recorded frames are released at their recorded timestamps, as if the footage were live.
+    REALTIME
+}
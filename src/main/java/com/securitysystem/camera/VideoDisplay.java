@@ -3,66 +3,80 @@ package com.securitysystem.camera;
 import com.securitysystem.detection.DetectionResult;
 import com.securitysystem.motion.DetectionConfig;
 import org.opencv.core.Mat;
-import org.opencv.core.Rect;
-import org.opencv.core.Scalar;
-import org.opencv.imgproc.Imgproc;
 
 import javax.swing.JFrame;
-import javax.swing.JLabel;
-import javax.swing.ImageIcon;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import java.awt.*;
-import org.opencv.core.Point;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class VideoDisplay {
+public class VideoDisplay implements FrameSink {
     private final JFrame frame;
-    private final JLabel imageLabel;
+    private final FramePanel framePanel;
+    private final AtomicBoolean paintPending;
+    private final AtomicLong coalescedFrames;
+    private final MatImageConverter converter;
+    private BufferedImage backBuffer;
     private int counter = 0;
 
+    // Only the front buffer is painted; the display thread fills the back buffer and swaps under the panel lock.
+    private static class FramePanel extends JPanel {
+        private static final long serialVersionUID = 1L;
+
+        private final Object bufferLock = new Object();
+        private BufferedImage frontBuffer;
+
+        private BufferedImage swap(BufferedImage filled) {
+            synchronized (bufferLock) {
+                BufferedImage previous = frontBuffer;
+                frontBuffer = filled;
+                return previous;
+            }
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            synchronized (bufferLock) {
+                if (frontBuffer != null) {
+                    g.drawImage(frontBuffer, 0, 0, null);
+                }
+            }
+        }
+    }
+
     public VideoDisplay() {
-        frame = new JFrame("Security Camera Feed");
-        imageLabel = new JLabel();
+        this("Security Camera Feed");
+    }
+
+    public VideoDisplay(String title) {
+        frame = new JFrame(title);
+        framePanel = new FramePanel();
+        paintPending = new AtomicBoolean(false);
+        coalescedFrames = new AtomicLong();
+        converter = new MatImageConverter();
 
+        framePanel.setPreferredSize(new Dimension(DetectionConfig.CAMERA_WIDTH, DetectionConfig.CAMERA_HEIGHT));
         frame.setLayout(new BorderLayout());
-        frame.add(imageLabel, BorderLayout.CENTER);
+        frame.add(framePanel, BorderLayout.CENTER);
         frame.setSize(DetectionConfig.CAMERA_WIDTH, DetectionConfig.CAMERA_HEIGHT);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setVisible(true);
     }
 
+    @Override
     public void showFrame(Mat matFrame) {
-        if(matFrame.empty()) {
+        if(matFrame == null || matFrame.empty()) {
             return;
         }
-        BufferedImage image = matToBufferedImage(matFrame);
-        ImageIcon imageIcon = new ImageIcon(image);
-        imageLabel.setIcon(imageIcon);
-        frame.repaint();
-    }
-
-    private BufferedImage matToBufferedImage(Mat mat) {
-        int width = mat.cols();
-        int height = mat.rows();
-        int channels = mat.channels();
-
-        byte[] sourcePixels = new byte[width * height * channels];
-        mat.get(0, 0, sourcePixels);
-
-        BufferedImage image;
-        if (channels == 3) {
-            image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
-        } else {
-            image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
-        }
-
-        final byte[] targetPixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
-        System.arraycopy(sourcePixels, 0, targetPixels, 0, sourcePixels.length);
-
-        return image;
+        copyToBackBuffer(matFrame);
+        present();
     }
 
+    @Override
     public void showFrameWithDetections(Mat matFrame, List<DetectionResult> detections) {
         if(matFrame == null || matFrame.empty()) {
             return;
@@ -70,34 +84,46 @@ public class VideoDisplay {
 
         counter++;
 
-        Mat displayFrame = matFrame.clone();
-
-        Scalar color;
+        BufferedImage image = copyToBackBuffer(matFrame);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            DetectionOverlay.draw(graphics, detections, counter);
+        } finally {
+            graphics.dispose();
+        }
 
-        for (DetectionResult detection: detections) {
-            Rect rect = detection.getBoundingBox();
-            String label = detection.getObjectType() + " " + String.format("%.2f", detection.getConfidenceScore());
-            Point point = new Point(rect.x, Math.max(rect.y - 10, 15));
+        present();
+    }
 
-            if(detection.isThreat()) {
-                if(counter % DetectionConfig.FLASH_CYCLE_FRAMES < DetectionConfig.FLASH_CYCLE_FRAMES / 2) {
-                    color = new Scalar(0, 0, 255);
-                } else {
-                    color = new Scalar(255, 255, 255);
-                }
-            } else {
-                color = new Scalar(0, 255, 0);
-            }
+    private BufferedImage copyToBackBuffer(Mat mat) {
+        backBuffer = converter.toBufferedImage(mat, backBuffer);
+        return backBuffer;
+    }
 
-            Imgproc.rectangle(displayFrame, rect.tl(), rect.br(), color, 2);
-            Imgproc.putText(displayFrame, label, point, Imgproc.FONT_HERSHEY_SIMPLEX, 0.6, color, 2);
+    // Publishes the back buffer and schedules at most one paint on the EDT; frames arriving while a paint
+    // is still pending replace the pending frame instead of queueing behind it.
+    private void present() {
+        BufferedImage previous = framePanel.swap(backBuffer);
+        backBuffer = previous;
+
+        if (paintPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                paintPending.set(false);
+                framePanel.paintImmediately(0, 0, framePanel.getWidth(), framePanel.getHeight());
+            });
+        } else {
+            coalescedFrames.incrementAndGet();
         }
+    }
 
-        showFrame(displayFrame);
+    @Override
+    public long getDroppedFrames() {
+        return coalescedFrames.get();
     }
 
+    @Override
     public void close() {
-        javax.swing.SwingUtilities.invokeLater(() -> {
+        SwingUtilities.invokeLater(() -> {
             frame.setVisible(false);
             frame.dispose();
         });
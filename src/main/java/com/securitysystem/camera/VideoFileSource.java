@@ -0,0 +1,90 @@
+package com.securitysystem.camera;
+
+import com.securitysystem.memory.MatScope;
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+public class VideoFileSource implements FrameSource {
+    private static final Logger LOGGER = Logger.getLogger(VideoFileSource.class.getName());
+    private static final double DEFAULT_FPS = 30.0;
+
+    private final Path videoPath;
+    private final VideoCapture videoCapture;
+    private final MatScope frameBuffers;
+    private final Mat matFrame;
+    private final double frameIntervalMs;
+    private long frameTimestamp;
+    private long framesRead;
+    private boolean exhausted;
+
+    public VideoFileSource(Path videoPath) {
+        this.videoPath = videoPath;
+        this.videoCapture = new VideoCapture(videoPath.toString());
+
+        if (!videoCapture.isOpened()) {
+            LOGGER.severe("Unable to open video file " + videoPath);
+            throw new RuntimeException("Failed to open video file: " + videoPath);
+        }
+
+        double fps = videoCapture.get(Videoio.CAP_PROP_FPS);
+        this.frameIntervalMs = 1000.0 / (fps > 0 ? fps : DEFAULT_FPS);
+        this.frameBuffers = new MatScope();
+        this.matFrame = frameBuffers.newMat();
+        this.frameTimestamp = 0;
+        this.framesRead = 0;
+        this.exhausted = false;
+    }
+
+    @Override
+    public Optional<Mat> captureFrame() {
+        if (exhausted) {
+            return Optional.empty();
+        }
+        if (!videoCapture.read(matFrame) || matFrame.empty()) {
+            exhausted = true;
+            return Optional.empty();
+        }
+
+        // Timestamps come from the nominal frame rate: backends disagree on whether CAP_PROP_POS_MSEC reports the
+        // frame just read or the next one, and a fixed spacing keeps reruns identical.
+        frameTimestamp = Math.round(framesRead * frameIntervalMs);
+        framesRead++;
+        return Optional.of(matFrame);
+    }
+
+    @Override
+    public long getFrameTimestamp() {
+        return frameTimestamp;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return videoCapture.isOpened();
+    }
+
+    @Override
+    public boolean isLive() {
+        return false;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public String getName() {
+        return videoPath.getFileName().toString();
+    }
+
+    @Override
+    public void release() {
+        videoCapture.release();
+        frameBuffers.close();
+    }
+}
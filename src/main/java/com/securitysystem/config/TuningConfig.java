@@ -0,0 +1,157 @@
+package com.securitysystem.config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+// Holds the current TuningSettings and, when given a file, reloads them whenever the file changes.
+// Per-frame state is pulled with current() at each stage's frame boundary; components with their own thread,
+// like the load controller, register a listener instead. An invalid edit is logged and the previous settings stay.
+public class TuningConfig {
+    private static final Logger LOGGER = Logger.getLogger(TuningConfig.class.getName());
+
+    private final Path file;
+    private final long settleMs;
+    private final AtomicReference<TuningSettings> current;
+    private final List<Consumer<TuningSettings>> listeners;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    private TuningConfig(Path file, long settleMs) {
+        this.file = file;
+        this.settleMs = settleMs;
+        this.current = new AtomicReference<>(TuningSettings.defaults());
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    // Settings fixed at the DetectionConfig defaults.
+    public static TuningConfig fixed() {
+        return new TuningConfig(null, 0);
+    }
+
+    // settleMs lets an editor finish writing before the file is read.
+    public static TuningConfig watching(Path file, long settleMs) {
+        TuningConfig config = new TuningConfig(file.toAbsolutePath(), settleMs);
+        if (Files.exists(config.file)) {
+            config.reload();
+        }
+        return config;
+    }
+
+    public TuningSettings current() {
+        return current.get();
+    }
+
+    public void addListener(Consumer<TuningSettings> listener) {
+        listeners.add(listener);
+    }
+
+    public void start() {
+        if (file == null) {
+            return;
+        }
+        try {
+            watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            LOGGER.warning("Unable to watch " + file + " for tuning changes: " + e.getMessage());
+            return;
+        }
+
+        watchThread = new Thread(this::watchLoop, "tuning-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        LOGGER.info("Watching " + file + " for tuning changes");
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = isTuningFileEvent(key);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                // Editors often write a file in several steps; wait them out and swallow the events they raise.
+                Thread.sleep(settleMs);
+                WatchKey pending;
+                while ((pending = watchService.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down.
+        }
+    }
+
+    private boolean isTuningFileEvent(WatchKey key) {
+        boolean matched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                matched = true;
+            }
+        }
+        return matched;
+    }
+
+    private void reload() {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            LOGGER.warning("Tuning file " + file + " was removed - keeping current settings");
+            return;
+        } catch (IOException e) {
+            LOGGER.warning("Unable to read tuning file " + file + ": " + e.getMessage());
+            return;
+        }
+
+        TuningSettings settings;
+        try {
+            settings = TuningSettings.fromProperties(properties);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning("Rejected tuning file " + file + " - keeping current settings: " + e.getMessage());
+            return;
+        }
+
+        TuningSettings previous = current.getAndSet(settings);
+        if (settings.equals(previous)) {
+            return;
+        }
+        LOGGER.info("Applied tuning from " + file.getFileName() + ": " + settings);
+        for (Consumer<TuningSettings> listener : listeners) {
+            listener.accept(settings);
+        }
+    }
+
+    public void shutdown() {
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.warning("Unable to close tuning watch service: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.securitysystem.config;
+
+import com.securitysystem.motion.DetectionConfig;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+// One immutable, validated set of the knobs that can be retuned while running. Stages read the current snapshot once
+// per frame, so a frame never sees half of an update.
+public final class TuningSettings {
+    static final String MOG2_HISTORY = "motion.mog2History";
+    static final String VARIANCE_THRESHOLD = "motion.varianceThreshold";
+    static final String MIN_CONTOUR_AREA = "motion.minContourArea";
+    static final String INPUT_SIZE = "detection.inputSize";
+    static final String FRAME_SKIP = "detection.frameSkip";
+    static final String CONFIDENCE_THRESHOLD = "detection.confidenceThreshold";
+    static final String NMS_THRESHOLD = "detection.nmsThreshold";
+    static final String THREAT_TIMEOUT_MS = "threat.timeoutMs";
+    static final String CAMERA_FPS = "camera.fps";
+
+    private static final Set<String> KNOWN_KEYS = Set.of(MOG2_HISTORY, VARIANCE_THRESHOLD, MIN_CONTOUR_AREA,
+            INPUT_SIZE, FRAME_SKIP, CONFIDENCE_THRESHOLD, NMS_THRESHOLD, THREAT_TIMEOUT_MS, CAMERA_FPS);
+
+    private final int mog2History;
+    private final double varianceThreshold;
+    private final double minContourArea;
+    private final int inputSize;
+    private final int detectionFrameSkip;
+    private final float confidenceThreshold;
+    private final float nmsThreshold;
+    private final long threatTimeoutMs;
+    private final int cameraFps;
+
+    private TuningSettings(int mog2History, double varianceThreshold, double minContourArea, int inputSize,
+                           int detectionFrameSkip, float confidenceThreshold, float nmsThreshold,
+                           long threatTimeoutMs, int cameraFps) {
+        this.mog2History = mog2History;
+        this.varianceThreshold = varianceThreshold;
+        this.minContourArea = minContourArea;
+        this.inputSize = inputSize;
+        this.detectionFrameSkip = detectionFrameSkip;
+        this.confidenceThreshold = confidenceThreshold;
+        this.nmsThreshold = nmsThreshold;
+        this.threatTimeoutMs = threatTimeoutMs;
+        this.cameraFps = cameraFps;
+    }
+
+    public static TuningSettings defaults() {
+        return new TuningSettings(DetectionConfig.MOG2_HISTORY,
+                DetectionConfig.VARIANCE_THRESHOLD,
+                DetectionConfig.MIN_CONTOUR_AREA,
+                DetectionConfig.YOLO_INPUT_SIZE,
+                DetectionConfig.DETECTION_FRAME_SKIP,
+                DetectionConfig.CONFIDENCE_THRESHOLD,
+                DetectionConfig.NMS_THRESHOLD,
+                DetectionConfig.THREAT_TIMEOUT_MS,
+                DetectionConfig.CAMERA_FPS);
+    }
+
+    // Keys missing from the file keep their DetectionConfig default. Every problem is reported at once so a bad edit
+    // can be fixed in one pass; nothing is applied unless the whole file is valid.
+    public static TuningSettings fromProperties(Properties properties) {
+        List<String> errors = new ArrayList<>();
+        Set<String> unknownKeys = new HashSet<>(properties.stringPropertyNames());
+        unknownKeys.removeAll(KNOWN_KEYS);
+        for (String key : unknownKeys) {
+            errors.add("unknown key " + key);
+        }
+
+        TuningSettings defaults = defaults();
+        int mog2History = (int) parse(properties, MOG2_HISTORY, defaults.mog2History, 1, 100_000, true, errors);
+        double varianceThreshold = parse(properties, VARIANCE_THRESHOLD, defaults.varianceThreshold, 1, 1000, false, errors);
+        double minContourArea = parse(properties, MIN_CONTOUR_AREA, defaults.minContourArea, 0, 10_000_000, false, errors);
+        int inputSize = (int) parse(properties, INPUT_SIZE, defaults.inputSize, 32, 1280, true, errors);
+        int frameSkip = (int) parse(properties, FRAME_SKIP, defaults.detectionFrameSkip, 1, 1000, true, errors);
+        float confidence = (float) parse(properties, CONFIDENCE_THRESHOLD, defaults.confidenceThreshold, 0.01, 1, false, errors);
+        float nms = (float) parse(properties, NMS_THRESHOLD, defaults.nmsThreshold, 0.01, 1, false, errors);
+        long threatTimeoutMs = (long) parse(properties, THREAT_TIMEOUT_MS, defaults.threatTimeoutMs, 1, 3_600_000, true, errors);
+        int cameraFps = (int) parse(properties, CAMERA_FPS, defaults.cameraFps, 1, 240, true, errors);
+
+        if (inputSize % 32 != 0) {
+            errors.add(INPUT_SIZE + " must be a multiple of 32: " + inputSize);
+        }
+        // A track must outlive the gap between detection passes, or it expires before the next pass can refresh it.
+        // With motion gating a quiet scene is only checked on the heartbeat, which is usually the longer gap.
+        long frameSkipIntervalMs = (frameSkip * 1000L + cameraFps - 1) / cameraFps;
+        long heartbeatIntervalMs = DetectionConfig.MOTION_GATING_ENABLED ? DetectionConfig.HEARTBEAT_INTERVAL_MS : 0;
+        long detectionIntervalMs = Math.max(frameSkipIntervalMs, heartbeatIntervalMs);
+        if (threatTimeoutMs < detectionIntervalMs) {
+            errors.add(THREAT_TIMEOUT_MS + " must be at least one detection interval (" + detectionIntervalMs +
+                    " ms: the longer of " + FRAME_SKIP + " / " + CAMERA_FPS + " = " + frameSkipIntervalMs +
+                    " ms and the " + heartbeatIntervalMs + " ms motion-gating heartbeat): " + threatTimeoutMs);
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+
+        return new TuningSettings(mog2History, varianceThreshold, minContourArea, inputSize, frameSkip,
+                confidence, nms, threatTimeoutMs, cameraFps);
+    }
+
+    private static double parse(Properties properties, String key, double defaultValue, double min, double max,
+                                boolean integral, List<String> errors) {
+        String text = properties.getProperty(key);
+        if (text == null) {
+            return defaultValue;
+        }
+
+        double value;
+        try {
+            value = integral ? Long.parseLong(text.trim()) : Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            errors.add(key + " is not a" + (integral ? "n integer" : " number") + ": " + text);
+            return defaultValue;
+        }
+        if (value < min || value > max) {
+            errors.add(key + " must be between " + min + " and " + max + ": " + text);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    public int getMog2History() {
+        return mog2History;
+    }
+
+    public double getVarianceThreshold() {
+        return varianceThreshold;
+    }
+
+    public double getMinContourArea() {
+        return minContourArea;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getDetectionFrameSkip() {
+        return detectionFrameSkip;
+    }
+
+    public float getConfidenceThreshold() {
+        return confidenceThreshold;
+    }
+
+    public float getNmsThreshold() {
+        return nmsThreshold;
+    }
+
+    public long getThreatTimeoutMs() {
+        return threatTimeoutMs;
+    }
+
+    public int getCameraFps() {
+        return cameraFps;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TuningSettings)) {
+            return false;
+        }
+        TuningSettings that = (TuningSettings) other;
+        return mog2History == that.mog2History &&
+                varianceThreshold == that.varianceThreshold &&
+                minContourArea == that.minContourArea &&
+                inputSize == that.inputSize &&
+                detectionFrameSkip == that.detectionFrameSkip &&
+                confidenceThreshold == that.confidenceThreshold &&
+                nmsThreshold == that.nmsThreshold &&
+                threatTimeoutMs == that.threatTimeoutMs &&
+                cameraFps == that.cameraFps;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mog2History, varianceThreshold, minContourArea, inputSize, detectionFrameSkip,
+                confidenceThreshold, nmsThreshold, threatTimeoutMs, cameraFps);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MOG2 history %d, variance %.1f, min contour %.0f, input %d, frame skip %d, " +
+                        "confidence %.2f, NMS %.2f, threat timeout %dms, camera %d fps",
+                mog2History, varianceThreshold, minContourArea, inputSize, detectionFrameSkip,
+                confidenceThreshold, nmsThreshold, threatTimeoutMs, cameraFps);
+    }
+}
@@ -0,0 +1,600 @@
+package com.securitysystem.core;
+
+import com.securitysystem.camera.FrameSink;
+import com.securitysystem.camera.FrameSinkType;
+import com.securitysystem.camera.FrameSource;
+import com.securitysystem.camera.MjpegStreamSink;
+import com.securitysystem.camera.NullFrameSink;
+import com.securitysystem.camera.ReplayMode;
+import com.securitysystem.camera.VideoDisplay;
+import com.securitysystem.config.TuningConfig;
+import com.securitysystem.config.TuningSettings;
+import com.securitysystem.detection.DetectionBatch;
+import com.securitysystem.detection.DetectionResult;
+import com.securitysystem.detection.InferenceEngine;
+import com.securitysystem.detection.KalmanBoxTracker;
+import com.securitysystem.detection.RegionsOfInterest;
+import com.securitysystem.detection.SpatialGrid;
+import com.securitysystem.detection.ThreatTrackListener;
+import com.securitysystem.detection.ThreatTracker;
+import com.securitysystem.eventlog.DetectionEventLog;
+import com.securitysystem.eventlog.EventType;
+import com.securitysystem.memory.MatPool;
+import com.securitysystem.memory.MatTracker;
+import com.securitysystem.motion.DetectionConfig;
+import com.securitysystem.motion.MotionDetector;
+import com.securitysystem.motion.MotionRegions;
+import com.securitysystem.motion.PerformanceTracker;
+import com.securitysystem.motion.PipelineStage;
+import com.securitysystem.recording.ClipRecorder;
+import org.opencv.core.Mat;
+
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+public class CameraPipeline {
+    private static final Logger LOGGER = Logger.getLogger(CameraPipeline.class.getName());
+    private static final int FRAME_SLEEP_MS = 10;
+    private static final int FPS_LOG_INTERVAL = 30;
+    private static final long STAGE_JOIN_TIMEOUT_MS = 2000;
+    private static final long NANOS_PER_MS = 1_000_000L;
+
+    // Detection-stage batches, refilled every frame.
+    private final DetectionBatch lastDetections = new DetectionBatch();
+    private final DetectionBatch predictedDetections = new DetectionBatch();
+    private final DetectionBatch activeThreats = new DetectionBatch();
+    private final DetectionExchange displayExchange = new DetectionExchange();
+    private final ArrayDeque<PendingDetection> inFlight = new ArrayDeque<>();
+    private final ArrayDeque<PendingDetection> freeSlots = new ArrayDeque<>();
+    private MotionRegions motionRegions;
+    private long frameCounter = 0;
+
+    private final FrameSource frameSource;
+    private final String sourceName;
+    private final int pipelineNumber;
+    private final boolean replayPaced;
+    private final int detectionDepth;
+    private final InferenceEngine inferenceEngine;
+    private final LoadController loadController;
+    private final ThreatTracker threatTracker;
+    private final KalmanBoxTracker boxTracker;
+    private final MotionDetector motionDetector;
+    private final PerformanceTracker performanceTracker;
+    private final DetectionScheduler detectionScheduler;
+    private final FrameSink frameSink;
+    private final FrameHandoff detectionHandoff;
+    private final FrameHandoff displayHandoff;
+    private final MatPool framePool;
+    private final SpatialGrid detectionGrid;
+    private final ClipRecorder clipRecorder;
+    private final DetectionEventLog eventLog;
+    private final int eventSourceId;
+    private final TuningConfig tuning;
+    private TuningSettings captureSettings;
+    private TuningSettings detectionSettings;
+    private Thread captureThread;
+    private Thread detectionThread;
+    private Thread displayThread;
+    private long replayOriginNanos;
+    private long replayOriginTimestamp;
+    private long sourceStartNanos;
+    private volatile boolean running;
+
+    // Recorded sources hand off with BLOCK so every frame reaches detection in order and a rerun gives the same results.
+    public CameraPipeline(FrameSource frameSource, FrameSink frameSink, int pipelineNumber, InferenceEngine inferenceEngine,
+                          LoadController loadController, DetectionEventLog eventLog, TuningConfig tuning) {
+        this.frameSource = frameSource;
+        this.sourceName = frameSource.getName();
+        this.pipelineNumber = pipelineNumber;
+        this.replayPaced = !frameSource.isLive() && DetectionConfig.REPLAY_MODE == ReplayMode.REALTIME;
+        // With several frames in flight, gating decisions depend on which results have landed, which would make
+        // reruns over recorded footage differ.
+        this.detectionDepth = frameSource.isLive() ? Math.max(1, DetectionConfig.DETECTION_PIPELINE_DEPTH) : 1;
+        for (int slot = 0; slot < detectionDepth; slot++) {
+            freeSlots.add(new PendingDetection());
+        }
+        this.inferenceEngine = inferenceEngine;
+        this.loadController = loadController;
+        this.threatTracker = new ThreatTracker();
+        this.boxTracker = DetectionConfig.INTER_FRAME_TRACKING_ENABLED ? new KalmanBoxTracker() : null;
+        this.motionDetector = new MotionDetector();
+        this.performanceTracker = new PerformanceTracker();
+        this.detectionScheduler = new DetectionScheduler();
+        this.frameSink = frameSink;
+        this.detectionHandoff = new FrameHandoff(DetectionConfig.DETECTION_QUEUE_CAPACITY,
+                frameSource.isLive() ? DetectionConfig.DETECTION_DROP_POLICY : DropPolicy.BLOCK, performanceTracker);
+        this.displayHandoff = new FrameHandoff(DetectionConfig.DISPLAY_QUEUE_CAPACITY,
+                frameSource.isLive() ? DetectionConfig.DISPLAY_DROP_POLICY : DropPolicy.BLOCK, performanceTracker);
+        this.framePool = new MatPool(DetectionConfig.FRAME_POOL_SIZE);
+        this.detectionGrid = new SpatialGrid(DetectionConfig.THREAT_MATCHING_DISTANCE);
+        this.clipRecorder = DetectionConfig.CLIP_RECORDING_ENABLED ?
+                new ClipRecorder(sourceName, frameSource.isLive() ? DropPolicy.LATEST_WINS : DropPolicy.BLOCK) : null;
+        this.eventLog = eventLog;
+        this.eventSourceId = eventLog != null ? eventLog.registerSource(sourceName) : -1;
+        this.tuning = tuning;
+        threatTracker.addTrackListener(new TrackEventRecorder());
+        if (clipRecorder != null) {
+            threatTracker.addTrackListener((trackId, detection, timestamp) -> clipRecorder.trigger(timestamp));
+        }
+        this.running = false;
+    }
+
+    static FrameSink createFrameSink(String sourceName, int pipelineNumber) {
+        FrameSinkType sinkType = DetectionConfig.FRAME_SINK_TYPE;
+
+        if (sinkType == FrameSinkType.SWING && GraphicsEnvironment.isHeadless()) {
+            LOGGER.warning("No display available - running " + sourceName + " headless");
+            sinkType = FrameSinkType.NONE;
+        }
+
+        switch (sinkType) {
+            case SWING:
+                return new VideoDisplay("Security Camera Feed - " + sourceName);
+            case MJPEG:
+                return new MjpegStreamSink(DetectionConfig.MJPEG_BASE_PORT + pipelineNumber);
+            default:
+                return new NullFrameSink();
+        }
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    // Listeners are called on the detection thread; add them before start().
+    public void addTrackListener(ThreatTrackListener listener) {
+        threatTracker.addTrackListener(listener);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void start() {
+        if (!frameSource.isOpen()) {
+            LOGGER.severe(sourceName + " failed to open.");
+            throw new RuntimeException("Frame source initialization failed for " + sourceName);
+        }
+
+        running = true;
+        performanceTracker.registerMBean("pipeline-" + pipelineNumber);
+        if (clipRecorder != null) {
+            clipRecorder.start();
+        }
+        captureThread = new Thread(this::captureLoop, "capture-stage-" + pipelineNumber);
+        detectionThread = new Thread(this::detectionLoop, "detection-stage-" + pipelineNumber);
+        displayThread = new Thread(this::displayLoop, "display-stage-" + pipelineNumber);
+        captureThread.start();
+        detectionThread.start();
+        displayThread.start();
+    }
+
+    // Returns once every stage has exited; for a recorded source that is after its last frame has been processed.
+    public void awaitTermination() throws InterruptedException {
+        for (Thread stage : new Thread[]{captureThread, detectionThread, displayThread}) {
+            if (stage != null) {
+                stage.join();
+            }
+        }
+        if (clipRecorder != null) {
+            clipRecorder.awaitTermination();
+        }
+        if (!frameSource.isLive()) {
+            logSourceSummary();
+        }
+    }
+
+    private void captureLoop() {
+        sourceStartNanos = System.nanoTime();
+
+        while (running) {
+            applyCaptureTuning();
+            long captureStart = System.nanoTime();
+            Optional<Mat> frameOpt = frameSource.captureFrame();
+
+            if (frameOpt.isPresent()) {
+                frameCounter++;
+                long timestamp = frameSource.getFrameTimestamp();
+                Mat frameCopy = framePool.copyOf(frameOpt.get());
+                performanceTracker.recordStage(PipelineStage.CAPTURE, System.nanoTime() - captureStart);
+
+                if (replayPaced && !awaitReplayTime(timestamp)) {
+                    framePool.release(frameCopy);
+                    LOGGER.info("Capture stage for " + sourceName + " interrupted - shutting down");
+                    break;
+                }
+
+                FramePacket packet = new FramePacket(frameCopy, frameCounter, System.nanoTime(), timestamp, framePool);
+                if (clipRecorder != null) {
+                    clipRecorder.offer(packet.retain());
+                }
+                detectionHandoff.offer(packet.retain());
+                displayHandoff.offer(packet);
+
+                if (Thread.currentThread().isInterrupted()) {
+                    LOGGER.info("Capture stage for " + sourceName + " interrupted - shutting down");
+                    break;
+                }
+            } else if (frameSource.isExhausted()) {
+                LOGGER.info("End of " + sourceName + " after " + frameCounter + " frames - draining pipeline");
+                detectionHandoff.finish();
+                displayHandoff.finish();
+                return;
+            } else {
+                LOGGER.warning("Failed to capture frame - " + sourceName + " may be disconnected");
+
+                try {
+                    Thread.sleep(FRAME_SLEEP_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.info("Capture stage for " + sourceName + " interrupted - shutting down");
+                    break;
+                }
+            }
+        }
+        stop();
+    }
+
+    // Each stage picks up new tuning between frames on its own thread, so no component is changed mid-frame.
+    private void applyCaptureTuning() {
+        TuningSettings settings = tuning.current();
+        if (settings == captureSettings) {
+            return;
+        }
+        int currentFps = captureSettings != null ? captureSettings.getCameraFps() : DetectionConfig.CAMERA_FPS;
+        if (settings.getCameraFps() != currentFps) {
+            frameSource.setFrameRate(settings.getCameraFps());
+        }
+        captureSettings = settings;
+    }
+
+    private void applyDetectionTuning() {
+        TuningSettings settings = tuning.current();
+        if (settings == detectionSettings) {
+            return;
+        }
+        motionDetector.setHistory(settings.getMog2History());
+        motionDetector.setVarianceThreshold(settings.getVarianceThreshold());
+        motionDetector.setMinContourArea(settings.getMinContourArea());
+        detectionScheduler.setFrameSkip(settings.getDetectionFrameSkip());
+        threatTracker.setTimeoutMs(settings.getThreatTimeoutMs());
+        detectionSettings = settings;
+    }
+
+    // Holds a recorded frame back until its offset from the first frame has elapsed in real time.
+    private boolean awaitReplayTime(long timestamp) {
+        if (replayOriginNanos == 0) {
+            replayOriginNanos = System.nanoTime();
+            replayOriginTimestamp = timestamp;
+            return true;
+        }
+
+        long dueNanos = replayOriginNanos + (timestamp - replayOriginTimestamp) * NANOS_PER_MS;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void logSourceSummary() {
+        long processed = performanceTracker.getInferencesRun() + performanceTracker.getInferencesSkipped();
+        double elapsedSeconds = (System.nanoTime() - sourceStartNanos) / 1e9;
+        LOGGER.info(String.format("Finished %s: %d frames processed in %.1fs (%.1f FPS, inferences run %d skipped %d)",
+                sourceName,
+                processed,
+                elapsedSeconds,
+                elapsedSeconds > 0 ? processed / elapsedSeconds : 0.0,
+                performanceTracker.getInferencesRun(),
+                performanceTracker.getInferencesSkipped()));
+    }
+
+    // A frame submitted for inference and not yet applied. Slots are reused, so each owns its results and regions.
+    private static class PendingDetection {
+        private final DetectionBatch results = new DetectionBatch();
+        private final RegionsOfInterest regions = new RegionsOfInterest();
+        private FramePacket packet;
+        private CompletableFuture<DetectionBatch> inference;
+    }
+
+    // Up to detectionDepth frames are in inference at once, possibly on different detector replicas. Results are
+    // applied strictly in capture order, so tracking, the event log and the display see frames in sequence however
+    // the replicas finish. Frames that skip inference queue behind the ones that did not.
+    private void detectionLoop() {
+        while (running) {
+            FramePacket packet;
+            try {
+                packet = detectionHandoff.take(DetectionConfig.STAGE_POLL_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (packet == null) {
+                finishCompletedDetections();
+                if (detectionHandoff.isDrained()) {
+                    break;
+                }
+                continue;
+            }
+
+            submitDetectionFrame(packet);
+            while (inFlight.size() >= detectionDepth) {
+                finishOldestDetection();
+            }
+            finishCompletedDetections();
+        }
+
+        // Workers may still be reading these frames, so they are waited for even when stopping.
+        while (!inFlight.isEmpty()) {
+            finishOldestDetection();
+        }
+
+        // Threats found in the last frames may still need their clip, so the recorder outlives detection.
+        if (clipRecorder != null) {
+            clipRecorder.finish();
+        }
+    }
+
+    private void submitDetectionFrame(FramePacket packet) {
+        PendingDetection pending = freeSlots.poll();
+        pending.packet = packet;
+        pending.inference = null;
+        inFlight.add(pending);
+
+        try {
+            Mat frame = packet.getFrame();
+            applyDetectionTuning();
+            detectionScheduler.setFrameSkipMultiplier(loadController.getFrameSkipMultiplier());
+
+            if (shouldRunDetection(frame, packet.getTimestamp())) {
+                RegionsOfInterest regions = collectRegionsOfInterest(pending.regions) ? pending.regions : null;
+                pending.inference = inferenceEngine.submit(frame, regions, pending.results);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.severe("Detection stage error on " + sourceName + ": " + e.getMessage());
+        }
+    }
+
+    private void finishCompletedDetections() {
+        PendingDetection oldest;
+        while ((oldest = inFlight.peek()) != null && (oldest.inference == null || oldest.inference.isDone())) {
+            finishOldestDetection();
+        }
+    }
+
+    private void finishOldestDetection() {
+        PendingDetection pending = inFlight.poll();
+        try {
+            applyDetectionFrame(pending);
+        } catch (RuntimeException e) {
+            LOGGER.severe("Detection stage error on " + sourceName + ": " + e.getMessage());
+        } finally {
+            pending.packet.release();
+            pending.packet = null;
+            pending.inference = null;
+            freeSlots.add(pending);
+        }
+    }
+
+    private void applyDetectionFrame(PendingDetection pending) {
+        long captureNanos = pending.packet.getCaptureNanos();
+        long timestamp = pending.packet.getTimestamp();
+
+        if (pending.inference != null) {
+            lastDetections.copyFrom(pending.inference.join());
+            long latencyNanos = System.nanoTime() - captureNanos;
+            loadController.recordDetectionLatency(latencyNanos / NANOS_PER_MS);
+            performanceTracker.recordStage(PipelineStage.END_TO_END, latencyNanos);
+            performanceTracker.recordInferenceRun();
+
+            long trackingStart = System.nanoTime();
+            threatTracker.updateThreats(lastDetections, timestamp);
+            if (boxTracker != null) {
+                boxTracker.correct(lastDetections, timestamp);
+            }
+            performanceTracker.recordStage(PipelineStage.TRACKING, System.nanoTime() - trackingStart);
+
+            if (eventLog != null) {
+                eventLog.appendDetections(eventSourceId, lastDetections, timestamp);
+            }
+        } else {
+            performanceTracker.recordInferenceSkipped();
+        }
+
+        // Between YOLO passes the tracker carries each box along its estimated motion.
+        DetectionBatch currentDetections = lastDetections;
+        if (boxTracker != null) {
+            boxTracker.predict(timestamp, predictedDetections);
+            currentDetections = predictedDetections;
+        }
+
+        threatTracker.getActiveThreats(timestamp, activeThreats);
+        DetectionBatch allToDisplay = displayExchange.back();
+        allToDisplay.copyFrom(currentDetections);
+
+        if (!activeThreats.isEmpty()) {
+            indexDetections(currentDetections);
+        }
+        for (int threat = 0; threat < activeThreats.size(); threat++) {
+            if (!isDuplicateDetection(activeThreats, threat, currentDetections)) {
+                allToDisplay.add(activeThreats, threat);
+            }
+        }
+
+        displayExchange.publish();
+    }
+
+    private class TrackEventRecorder implements ThreatTrackListener {
+        @Override
+        public void onTrackStarted(long trackId, DetectionResult detection, long timestamp) {
+            if (eventLog != null) {
+                eventLog.appendTrackEvent(eventSourceId, EventType.TRACK_STARTED, trackId, detection, timestamp);
+            }
+        }
+
+        @Override
+        public void onTrackUpdated(long trackId, DetectionResult detection, long timestamp) {
+            if (eventLog != null) {
+                eventLog.appendTrackEvent(eventSourceId, EventType.TRACK_UPDATED, trackId, detection, timestamp);
+            }
+        }
+
+        @Override
+        public void onTrackExpired(long trackId, DetectionResult detection, long timestamp) {
+            if (eventLog != null) {
+                eventLog.appendTrackEvent(eventSourceId, EventType.TRACK_EXPIRED, trackId, detection, timestamp);
+            }
+        }
+    }
+
+    private void displayLoop() {
+        while (running) {
+            FramePacket packet;
+            try {
+                packet = displayHandoff.take(DetectionConfig.STAGE_POLL_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (packet == null) {
+                if (displayHandoff.isDrained()) {
+                    break;
+                }
+                continue;
+            }
+
+            try {
+                performanceTracker.startFrame();
+
+                DetectionBatch allToDisplay = displayExchange.latest();
+                if (!allToDisplay.isEmpty()) {
+                    frameSink.showFrameWithDetections(packet.getFrame(), allToDisplay.asList());
+                } else {
+                    frameSink.showFrame(packet.getFrame());
+                }
+
+                performanceTracker.endFrame();
+
+                if (performanceTracker.getFrameCount() % FPS_LOG_INTERVAL == 0) {
+                    LOGGER.info(String.format("%s FPS: %.2f (dropped %d, sink %d, inferences run %d skipped %d) %s",
+                            sourceName,
+                            performanceTracker.getCurrentFPS(),
+                            performanceTracker.getFramesDropped(),
+                            frameSink.getDroppedFrames(),
+                            performanceTracker.getInferencesRun(),
+                            performanceTracker.getInferencesSkipped(),
+                            performanceTracker.summary()));
+                    MatTracker.logStatus(sourceName);
+                }
+            } finally {
+                packet.release();
+            }
+        }
+    }
+
+    private boolean shouldRunDetection(Mat frame, long timestamp) {
+        boolean motionDetected = false;
+        boolean threatActive = false;
+        motionRegions = null;
+
+        if (detectionScheduler.isGatingEnabled()) {
+            long motionStart = System.nanoTime();
+            motionRegions = motionDetector.detect(frame);
+            motionDetected = !motionRegions.isEmpty();
+            performanceTracker.recordStage(PipelineStage.MOTION, System.nanoTime() - motionStart);
+            threatActive = threatTracker.hasActiveThreats(timestamp) || lastDetections.hasThreats();
+        }
+
+        return detectionScheduler.shouldDetect(motionDetected, threatActive, timestamp);
+    }
+
+    // ROI inference needs this frame's motion; heartbeat and threat-hold passes without any still see the whole frame.
+    // The boxes of threats still held from earlier frames are added so a threat that stops moving stays in view.
+    private boolean collectRegionsOfInterest(RegionsOfInterest regionsOfInterest) {
+        if (motionRegions == null || motionRegions.isEmpty() ||
+                !(DetectionConfig.ROI_INFERENCE_ENABLED || loadController.isRoiInferenceEnabled())) {
+            return false;
+        }
+
+        regionsOfInterest.clear();
+        for (int region = 0; region < motionRegions.size(); region++) {
+            regionsOfInterest.add(motionRegions.getX(region), motionRegions.getY(region),
+                    motionRegions.getWidth(region), motionRegions.getHeight(region));
+        }
+        for (int threat = 0; threat < activeThreats.size(); threat++) {
+            regionsOfInterest.add(activeThreats.getX(threat), activeThreats.getY(threat),
+                    activeThreats.getWidth(threat), activeThreats.getHeight(threat));
+        }
+        return true;
+    }
+
+    private void indexDetections(DetectionBatch detections) {
+        detectionGrid.clear();
+        for (int i = 0; i < detections.size(); i++) {
+            detectionGrid.insert(i, detections.getX(i), detections.getY(i));
+        }
+    }
+
+    // Only detections in neighbouring grid cells of the indexed batch can be within the matching distance.
+    private boolean isDuplicateDetection(DetectionBatch candidates, int row, DetectionBatch detections) {
+        int x = candidates.getX(row);
+        int y = candidates.getY(row);
+        int neighbours = detectionGrid.queryNeighbours(x, y);
+
+        for (int n = 0; n < neighbours; n++) {
+            int existing = detectionGrid.getQueryResult(n);
+            if (candidates.getClassId(row) == detections.getClassId(existing) &&
+                    Math.abs(x - detections.getX(existing)) < DetectionConfig.THREAT_MATCHING_DISTANCE &&
+                    Math.abs(y - detections.getY(existing)) < DetectionConfig.THREAT_MATCHING_DISTANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void stop() {
+        running = false;
+        detectionHandoff.close();
+        displayHandoff.close();
+    }
+
+    public void shutdown() {
+        stop();
+        joinStage(captureThread);
+        joinStage(detectionThread);
+        joinStage(displayThread);
+        frameSink.close();
+        if (clipRecorder != null) {
+            clipRecorder.shutdown();
+        }
+        frameSource.release();
+        motionDetector.release();
+        framePool.clear();
+        performanceTracker.unregisterMBean();
+        threatTracker.clearAllThreats();
+        if (boxTracker != null) {
+            boxTracker.clear();
+        }
+    }
+
+    private void joinStage(Thread stage) {
+        if (stage == null || stage == Thread.currentThread()) {
+            return;
+        }
+        try {
+            stage.join(STAGE_JOIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.securitysystem.core;
+
+import com.securitysystem.detection.DetectionBatch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Triple buffer handing the latest detections from the detection stage to the display stage. The writer fills its
+// back batch and swaps it into the middle slot; the reader swaps the middle slot for its front batch only when
+// something new was published. Each side only ever touches the batch it holds, so neither copies nor locks.
+class DetectionExchange {
+    private static final int INDEX_MASK = 0b11;
+    private static final int FRESH = 0b100;
+
+    private final DetectionBatch[] batches;
+    private final AtomicInteger middle;
+    private int back;
+    private int front;
+
+    public DetectionExchange() {
+        this.batches = new DetectionBatch[]{new DetectionBatch(), new DetectionBatch(), new DetectionBatch()};
+        this.back = 0;
+        this.front = 1;
+        this.middle = new AtomicInteger(2);
+    }
+
+    // Writer side: the batch to fill for the next publish.
+    public DetectionBatch back() {
+        return batches[back];
+    }
+
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // Reader side: the most recently published batch, which stays the reader's until its next call.
+    public DetectionBatch latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return batches[front];
+    }
+}
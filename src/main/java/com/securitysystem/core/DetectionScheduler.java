@@ -0,0 +1,70 @@
+package com.securitysystem.core;
+
+import com.securitysystem.motion.DetectionConfig;
+
+public class DetectionScheduler {
+
+    private final boolean gatingEnabled;
+    private final long burstDurationMs;
+    private final long heartbeatIntervalMs;
+
+    private int frameSkip;
+    private int frameSkipMultiplier;
+    private int frameCounter;
+    private long burstEndTime;
+    private long lastDetectionTime;
+
+    public DetectionScheduler(boolean gatingEnabled, long burstDurationMs, long heartbeatIntervalMs) {
+        this.gatingEnabled = gatingEnabled;
+        this.burstDurationMs = burstDurationMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.frameSkip = DetectionConfig.DETECTION_FRAME_SKIP;
+        this.frameSkipMultiplier = 1;
+        this.frameCounter = 0;
+        this.burstEndTime = 0;
+        this.lastDetectionTime = -heartbeatIntervalMs;
+    }
+
+    public DetectionScheduler() {
+        this(DetectionConfig.MOTION_GATING_ENABLED,
+                DetectionConfig.BURST_DURATION_MS,
+                DetectionConfig.HEARTBEAT_INTERVAL_MS);
+    }
+
+    public boolean isGatingEnabled() {
+        return gatingEnabled;
+    }
+
+    public void setFrameSkip(int frameSkip) {
+        this.frameSkip = Math.max(1, frameSkip);
+    }
+
+    public void setFrameSkipMultiplier(int frameSkipMultiplier) {
+        this.frameSkipMultiplier = Math.max(1, frameSkipMultiplier);
+    }
+
+    public boolean isBursting(long currentTime) {
+        return currentTime < burstEndTime;
+    }
+
+    // The frame skip paces detection whenever it runs every few frames: always without gating, during bursts with it.
+    public boolean shouldDetect(boolean motionDetected, boolean threatActive, long currentTime) {
+        frameCounter++;
+        boolean skipFrameDue = frameCounter % (frameSkip * frameSkipMultiplier) == 0;
+
+        if (!gatingEnabled) {
+            return skipFrameDue;
+        }
+
+        if (motionDetected || threatActive) {
+            burstEndTime = currentTime + burstDurationMs;
+        }
+
+        boolean burstFrameDue = isBursting(currentTime) && skipFrameDue;
+        if (burstFrameDue || currentTime - lastDetectionTime >= heartbeatIntervalMs) {
+            lastDetectionTime = currentTime;
+            return true;
+        }
+        return false;
+    }
+}
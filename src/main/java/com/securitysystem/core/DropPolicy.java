@@ -0,0 +1,6 @@
+package com.securitysystem.core;
+
+public enum DropPolicy {
+    LATEST_WINS,
+    BLOCK
+}
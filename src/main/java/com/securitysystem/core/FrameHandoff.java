@@ -0,0 +1,140 @@
+package com.securitysystem.core;
+
+import com.securitysystem.motion.PerformanceTracker;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class FrameHandoff {
+    private final ArrayDeque<FramePacket> buffer;
+    private final int capacity;
+    private final DropPolicy dropPolicy;
+    private final PerformanceTracker performanceTracker;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private long droppedFrames;
+    private boolean closed;
+
+    public FrameHandoff(int capacity, DropPolicy dropPolicy) {
+        this(capacity, dropPolicy, null);
+    }
+
+    public FrameHandoff(int capacity, DropPolicy dropPolicy, PerformanceTracker performanceTracker) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Hand-off capacity must be at least 1");
+        }
+        this.buffer = new ArrayDeque<>(capacity);
+        this.capacity = capacity;
+        this.dropPolicy = dropPolicy;
+        this.performanceTracker = performanceTracker;
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+        this.droppedFrames = 0;
+        this.closed = false;
+    }
+
+    // Takes ownership of one reference on the packet; it is released if the packet is dropped.
+    public boolean offer(FramePacket packet) {
+        lock.lock();
+        try {
+            if (dropPolicy == DropPolicy.BLOCK) {
+                while (buffer.size() >= capacity && !closed) {
+                    try {
+                        notFull.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        packet.release();
+                        return false;
+                    }
+                }
+            } else if (buffer.size() >= capacity) {
+                buffer.pollFirst().release();
+                droppedFrames++;
+                if (performanceTracker != null) {
+                    performanceTracker.recordFrameDropped();
+                }
+            }
+
+            if (closed) {
+                packet.release();
+                return false;
+            }
+
+            buffer.addLast(packet);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns null on timeout or once the hand-off is closed and drained.
+    public FramePacket take(long timeoutMs) throws InterruptedException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        lock.lock();
+        try {
+            while (buffer.isEmpty()) {
+                if (closed || remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = notEmpty.awaitNanos(remainingNanos);
+            }
+
+            FramePacket packet = buffer.pollFirst();
+            notFull.signal();
+            return packet;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedFrames() {
+        lock.lock();
+        try {
+            return droppedFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // True once the hand-off is closed or finished and every queued packet has been taken.
+    public boolean isDrained() {
+        lock.lock();
+        try {
+            return closed && buffer.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stops accepting packets but lets the consumer take what is already queued, unlike close().
+    public void finish() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            while (!buffer.isEmpty()) {
+                buffer.pollFirst().release();
+            }
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
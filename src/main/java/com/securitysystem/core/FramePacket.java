@@ -0,0 +1,57 @@
+package com.securitysystem.core;
+
+import com.securitysystem.memory.MatPool;
+import org.opencv.core.Mat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FramePacket {
+    private final Mat frame;
+    private final long frameNumber;
+    private final long captureNanos;
+    private final long timestamp;
+    private final MatPool framePool;
+    private final AtomicInteger references;
+
+    // captureNanos is a System.nanoTime() stamp for latency accounting; timestamp is the frame's time in milliseconds
+    // on its source's timeline, which for recorded footage is the recorded time rather than when it was read.
+    public FramePacket(Mat frame, long frameNumber, long captureNanos, long timestamp, MatPool framePool) {
+        this.frame = frame;
+        this.frameNumber = frameNumber;
+        this.captureNanos = captureNanos;
+        this.timestamp = timestamp;
+        this.framePool = framePool;
+        this.references = new AtomicInteger(1);
+    }
+
+    public Mat getFrame() {
+        return frame;
+    }
+
+    public long getFrameNumber() {
+        return frameNumber;
+    }
+
+    public long getCaptureNanos() {
+        return captureNanos;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public FramePacket retain() {
+        references.incrementAndGet();
+        return this;
+    }
+
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            if (framePool != null) {
+                framePool.release(frame);
+            } else {
+                frame.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.securitysystem.core;
+
+import com.securitysystem.motion.DetectionConfig;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.logging.Logger;
+
+// Feedback controller that walks a quality ladder against a latency target and CPU budget.
+// It steps down quickly when a window is over budget and steps back up only after a sustained run of headroom.
+public class LoadController {
+    private static final Logger LOGGER = Logger.getLogger(LoadController.class.getName());
+
+    private static class QualityLevel {
+        private final int frameSkipMultiplier;
+        private final int inputSize;
+        private final boolean roiInference;
+
+        public QualityLevel(int frameSkipMultiplier, int inputSize, boolean roiInference) {
+            this.frameSkipMultiplier = frameSkipMultiplier;
+            this.inputSize = inputSize;
+            this.roiInference = roiInference;
+        }
+
+        private QualityLevel capped(int inputSizeCap) {
+            return new QualityLevel(frameSkipMultiplier, Math.min(inputSize, inputSizeCap), roiInference);
+        }
+
+        private boolean sameAs(QualityLevel other) {
+            return frameSkipMultiplier == other.frameSkipMultiplier && inputSize == other.inputSize &&
+                    roiInference == other.roiInference;
+        }
+
+        @Override
+        public String toString() {
+            return "skip x" + frameSkipMultiplier + ", input " + inputSize + ", ROI " + (roiInference ? "on" : "off");
+        }
+    }
+
+    // Ordered from best quality to cheapest. The ladder actually walked is this one capped at the configured input size.
+    private static final QualityLevel[] QUALITY_LADDER = {
+            new QualityLevel(1, 608, false),
+            new QualityLevel(1, 416, false),
+            new QualityLevel(2, 416, false),
+            new QualityLevel(2, 416, true),
+            new QualityLevel(3, 320, true),
+            new QualityLevel(5, 320, true),
+            new QualityLevel(10, 320, true)
+    };
+
+    private final boolean enabled;
+    private final long targetLatencyMs;
+    private final double cpuBudget;
+    private final int backoffIntervals;
+    private final int restoreIntervals;
+    private final double restoreHeadroom;
+    private final AtomicLong latencySumMs;
+    private final AtomicLong latencyCount;
+    private final AtomicLong latencyMaxMs;
+    private final OperatingSystemMXBean operatingSystem;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile IntConsumer inputSizeListener;
+    private volatile QualityLevel currentLevel;
+    // The capped ladder, the QUALITY_LADDER index each of its rungs starts at, and the position on it are only touched
+    // by the controller's thread once constructed; pipelines read currentLevel.
+    private QualityLevel[] ladder;
+    private int[] ladderTemplateRungs;
+    private int levelIndex;
+    private int overBudgetStreak;
+    private int headroomStreak;
+
+    public LoadController(boolean enabled, long targetLatencyMs, double cpuBudget) {
+        this.enabled = enabled;
+        this.targetLatencyMs = targetLatencyMs;
+        this.cpuBudget = cpuBudget;
+        this.backoffIntervals = DetectionConfig.LOAD_BACKOFF_INTERVALS;
+        this.restoreIntervals = DetectionConfig.LOAD_RESTORE_INTERVALS;
+        this.restoreHeadroom = DetectionConfig.LOAD_RESTORE_HEADROOM;
+        this.latencySumMs = new AtomicLong();
+        this.latencyCount = new AtomicLong();
+        this.latencyMaxMs = new AtomicLong();
+        this.operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        this.inputSizeListener = inputSize -> { };
+        buildLadder(DetectionConfig.YOLO_INPUT_SIZE);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public LoadController() {
+        this(DetectionConfig.ADAPTIVE_LOAD_CONTROL_ENABLED,
+                DetectionConfig.TARGET_LATENCY_MS,
+                DetectionConfig.CPU_BUDGET);
+    }
+
+    // The configured input size caps every rung of the ladder: the controller can shrink below it under load but never
+    // restores above it, and a size between rungs is used as-is rather than snapped. Runs on the controller's own
+    // thread so it cannot interleave with an evaluation.
+    public void setConfiguredInputSize(int configuredInputSize) {
+        scheduler.execute(() -> {
+            overBudgetStreak = 0;
+            headroomStreak = 0;
+            int previousInputSize = getInputSize();
+            buildLadder(configuredInputSize);
+            if (getInputSize() != previousInputSize) {
+                inputSizeListener.accept(getInputSize());
+            }
+            LOGGER.info("Configured input size " + configuredInputSize + ": " + ladder.length + " quality levels, on level " +
+                    levelIndex + " (" + currentLevel + ")");
+        });
+    }
+
+    // Rungs the cap makes identical are merged so every step changes something. The current level keeps its place:
+    // it moves to the rung that now covers the QUALITY_LADDER rung it started from.
+    private void buildLadder(int inputSizeCap) {
+        int currentTemplateRung = ladder == null ? 0 : ladderTemplateRungs[levelIndex];
+        List<QualityLevel> rungs = new ArrayList<>();
+        List<Integer> templateRungs = new ArrayList<>();
+        for (int i = 0; i < QUALITY_LADDER.length; i++) {
+            QualityLevel rung = QUALITY_LADDER[i].capped(inputSizeCap);
+            if (rungs.isEmpty() || !rung.sameAs(rungs.get(rungs.size() - 1))) {
+                rungs.add(rung);
+                templateRungs.add(i);
+            }
+        }
+
+        ladder = rungs.toArray(new QualityLevel[0]);
+        ladderTemplateRungs = new int[templateRungs.size()];
+        for (int i = 0; i < ladderTemplateRungs.length; i++) {
+            ladderTemplateRungs[i] = templateRungs.get(i);
+        }
+        levelIndex = 0;
+        while (levelIndex + 1 < ladder.length && ladderTemplateRungs[levelIndex + 1] <= currentTemplateRung) {
+            levelIndex++;
+        }
+        currentLevel = ladder[levelIndex];
+    }
+
+    // The listener is called immediately with the current input size and again whenever it changes.
+    public void setInputSizeListener(IntConsumer listener) {
+        this.inputSizeListener = listener;
+        listener.accept(getInputSize());
+    }
+
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.scheduleAtFixedRate(this::evaluate,
+                DetectionConfig.LOAD_CONTROL_INTERVAL_MS,
+                DetectionConfig.LOAD_CONTROL_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Capture-to-result latency of one detection frame.
+    public void recordDetectionLatency(long latencyMs) {
+        latencySumMs.addAndGet(latencyMs);
+        latencyCount.incrementAndGet();
+        latencyMaxMs.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    public int getFrameSkipMultiplier() {
+        return currentLevel.frameSkipMultiplier;
+    }
+
+    public int getInputSize() {
+        return currentLevel.inputSize;
+    }
+
+    public boolean isRoiInferenceEnabled() {
+        return currentLevel.roiInference;
+    }
+
+    private void evaluate() {
+        long count = latencyCount.getAndSet(0);
+        long sum = latencySumMs.getAndSet(0);
+        long max = latencyMaxMs.getAndSet(0);
+        double cpuLoad = processCpuLoad();
+
+        if (count == 0 && cpuLoad < 0) {
+            return;
+        }
+
+        double averageLatency = count > 0 ? (double) sum / count : 0.0;
+        boolean overBudget = averageLatency > targetLatencyMs || cpuLoad > cpuBudget;
+        boolean headroom = averageLatency < targetLatencyMs * restoreHeadroom &&
+                (cpuLoad < 0 || cpuLoad < cpuBudget * restoreHeadroom);
+
+        if (overBudget) {
+            headroomStreak = 0;
+            if (++overBudgetStreak >= backoffIntervals && levelIndex < ladder.length - 1) {
+                changeLevel(levelIndex + 1, averageLatency, max, cpuLoad);
+                overBudgetStreak = 0;
+            }
+        } else if (headroom) {
+            overBudgetStreak = 0;
+            if (++headroomStreak >= restoreIntervals && levelIndex > 0) {
+                changeLevel(levelIndex - 1, averageLatency, max, cpuLoad);
+                headroomStreak = 0;
+            }
+        } else {
+            overBudgetStreak = 0;
+            headroomStreak = 0;
+        }
+    }
+
+    private void changeLevel(int newLevel, double averageLatency, long maxLatency, double cpuLoad) {
+        String direction = newLevel > levelIndex ? "Backing off" : "Restoring quality";
+        int previousInputSize = getInputSize();
+        levelIndex = newLevel;
+        currentLevel = ladder[newLevel];
+        if (getInputSize() != previousInputSize) {
+            inputSizeListener.accept(getInputSize());
+        }
+        LOGGER.info(String.format("%s to level %d (%s): latency avg %.1fms max %dms, CPU %.0f%%",
+                direction, newLevel, currentLevel, averageLatency, maxLatency, cpuLoad * 100));
+    }
+
+    private double processCpuLoad() {
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuLoad();
+        }
+        return -1;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
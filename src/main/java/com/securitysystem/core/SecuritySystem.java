@@ -1,156 +1,334 @@
 package com.securitysystem.core;
 
-import com.securitysystem.detection.DetectionResult;
-import com.securitysystem.detection.ThreatTracker;
-import com.securitysystem.detection.YoloDetector;
-import com.securitysystem.motion.DetectionConfig;
-import org.opencv.core.Core;
-import org.opencv.core.Mat;
+import com.securitysystem.alert.AlertDispatcher;
+import com.securitysystem.alert.FileAlertSink;
+import com.securitysystem.alert.LoggingAlertSink;
+import com.securitysystem.alert.WebhookAlertSink;
 import com.securitysystem.camera.CameraManager;
 import com.securitysystem.camera.FrameCapture;
-import com.securitysystem.camera.VideoDisplay;
-import com.securitysystem.motion.MotionDetector;
+import com.securitysystem.camera.FrameSink;
+import com.securitysystem.camera.FrameSource;
+import com.securitysystem.camera.ImageSequenceSource;
+import com.securitysystem.camera.VideoFileSource;
+import com.securitysystem.config.TuningConfig;
+import com.securitysystem.detection.CascadeDetector;
+import com.securitysystem.detection.DetectorBackend;
+import com.securitysystem.detection.InferenceEngine;
+import com.securitysystem.detection.ObjectDetector;
+import com.securitysystem.detection.OnnxYoloDetector;
+import com.securitysystem.detection.YoloDetector;
+import com.securitysystem.eventlog.DetectionEventLog;
+import com.securitysystem.memory.MatTracker;
+import com.securitysystem.motion.DetectionConfig;
 import com.securitysystem.motion.PerformanceTracker;
+import org.opencv.core.Core;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 public class SecuritySystem {
     private static final Logger LOGGER = Logger.getLogger(SecuritySystem.class.getName());
-    private static final int FRAME_SLEEP_MS = 10;
-    private static final int FPS_LOG_INTERVAL = 30;
-
-    private List<DetectionResult> lastDetections = new ArrayList<>();
-    private int frameCounter = 0;
-
-    private final ThreatTracker threatTracker;
-    private final YoloDetector yoloDetector;
-    private final CameraManager cameraManager;
-    private final FrameCapture frameCapture;
-    private final MotionDetector motionDetector;
-    private final PerformanceTracker performanceTracker;
-    private final VideoDisplay videoDisplay;
+
+    private final TuningConfig tuning;
+    private final InferenceEngine inferenceEngine;
+    private final LoadController loadController;
+    private final PerformanceTracker inferenceTracker;
+    private final DetectionEventLog eventLog;
+    private final AlertDispatcher alertDispatcher;
+    private final List<CameraPipeline> pipelines;
+    private final AtomicBoolean shutDown;
     private volatile boolean running;
 
-    public SecuritySystem() {
-        this.threatTracker = new ThreatTracker();
-        this.cameraManager = new CameraManager();
-        this.frameCapture = new FrameCapture(cameraManager);
-        this.motionDetector = new MotionDetector();
-        this.performanceTracker = new PerformanceTracker();
-        this.videoDisplay = new VideoDisplay();
+    // Loading and warming up each detector replica, opening each source and its display, and opening the event log
+    // all run concurrently; the system is ready once the slowest of them finishes.
+    public SecuritySystem(List<Supplier<FrameSource>> sourceOpeners) {
+        StartupTimer startupTimer = new StartupTimer();
+        ExecutorService startupExecutor = Executors.newCachedThreadPool(new StartupThreadFactory());
+        List<CompletableFuture<FrameSource>> sourceFutures = new ArrayList<>();
+        List<CompletableFuture<FrameSink>> sinkFutures = new ArrayList<>();
 
+        List<CompletableFuture<ObjectDetector>> detectorFutures = new ArrayList<>();
+        List<ObjectDetector> detectors = new ArrayList<>();
+        CompletableFuture<DetectionEventLog> eventLogFuture = CompletableFuture.completedFuture(null);
+        DetectionEventLog openedEventLog;
         try {
-            this.yoloDetector = new YoloDetector();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize YoloDetector: " + e.getMessage(), e);
+            for (int i = 0; i < Math.max(1, DetectionConfig.DETECTOR_POOL_SIZE); i++) {
+                int replica = i;
+                detectorFutures.add(CompletableFuture.supplyAsync(() -> loadDetector(startupTimer, replica), startupExecutor));
+            }
+            if (DetectionConfig.EVENT_LOG_ENABLED) {
+                eventLogFuture = CompletableFuture.supplyAsync(
+                        () -> startupTimer.time("event log", SecuritySystem::openEventLog), startupExecutor);
+            }
+
+            for (int i = 0; i < sourceOpeners.size(); i++) {
+                int pipelineNumber = i;
+                Supplier<FrameSource> opener = sourceOpeners.get(i);
+                CompletableFuture<FrameSource> sourceFuture = CompletableFuture.supplyAsync(
+                        () -> startupTimer.time("source " + pipelineNumber + " open", opener), startupExecutor);
+                sourceFutures.add(sourceFuture);
+                sinkFutures.add(sourceFuture.thenApplyAsync(source -> startupTimer.time("display for " + source.getName(),
+                        () -> CameraPipeline.createFrameSink(source.getName(), pipelineNumber)), startupExecutor));
+            }
+
+            for (CompletableFuture<ObjectDetector> detectorFuture : detectorFutures) {
+                detectors.add(detectorFuture.join());
+            }
+            openedEventLog = eventLogFuture.join();
+            CompletableFuture.allOf(sinkFutures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            releaseStarted(sourceFutures, sinkFutures, eventLogFuture);
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new RuntimeException("Startup failed: " + cause.getMessage(), cause);
+        } finally {
+            startupExecutor.shutdown();
         }
 
-        this.running = false;
-    }
+        long batchMaxWaitMs = sourceOpeners.size() > 1 ? DetectionConfig.INFERENCE_BATCH_MAX_WAIT_MS : 0;
+        this.tuning = DetectionConfig.TUNING_HOT_RELOAD_ENABLED ?
+                TuningConfig.watching(Paths.get(DetectionConfig.TUNING_FILE), DetectionConfig.TUNING_RELOAD_SETTLE_MS) :
+                TuningConfig.fixed();
+        this.inferenceEngine = new InferenceEngine(detectors, batchMaxWaitMs, tuning);
+        this.inferenceTracker = new PerformanceTracker();
+        inferenceEngine.setPerformanceTracker(inferenceTracker);
 
-    public void start() {
-        running = true;
-        LOGGER.info("Security system starting...");
+        // Adapting quality to this machine's load would make a rerun over recorded footage give different results.
+        boolean allLive = sourceFutures.stream().allMatch(source -> source.join().isLive());
+        this.loadController = new LoadController(DetectionConfig.ADAPTIVE_LOAD_CONTROL_ENABLED && allLive,
+                DetectionConfig.TARGET_LATENCY_MS,
+                DetectionConfig.CPU_BUDGET);
+        loadController.setInputSizeListener(inferenceEngine::setInputSize);
+        loadController.setConfiguredInputSize(tuning.current().getInputSize());
+        tuning.addListener(settings -> loadController.setConfiguredInputSize(settings.getInputSize()));
+
+        this.eventLog = openedEventLog;
 
-        if (!cameraManager.isOpen()) {
-            LOGGER.severe("Camera failed to open. Exiting.");
-            throw new RuntimeException("Camera initialization failed");
+        this.pipelines = new ArrayList<>();
+        for (int i = 0; i < sourceFutures.size(); i++) {
+            pipelines.add(new CameraPipeline(sourceFutures.get(i).join(), sinkFutures.get(i).join(), i,
+                    inferenceEngine, loadController, eventLog, tuning));
         }
 
-        run();
+        this.alertDispatcher = DetectionConfig.ALERTS_ENABLED ? createAlertDispatcher() : null;
+        if (alertDispatcher != null) {
+            for (CameraPipeline pipeline : pipelines) {
+                pipeline.addTrackListener(alertDispatcher.listenerFor(pipeline.getSourceName()));
+            }
+        }
+
+        this.shutDown = new AtomicBoolean(false);
+        this.running = false;
+        startupTimer.logReport();
     }
 
-    private void run() {
-        while (running) {
-            performanceTracker.startFrame();
+    public SecuritySystem(int[] cameraIndices) {
+        this(cameraOpeners(cameraIndices));
+    }
 
-            Optional<Mat> frameOpt = frameCapture.captureFrame();
+    public SecuritySystem() {
+        this(DetectionConfig.CAMERA_INDICES);
+    }
 
-            if (frameOpt.isPresent()) {
-                Mat frame = frameOpt.get();
-                frameCounter++;
+    private static class StartupThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
 
-                if (frameCounter % DetectionConfig.DETECTION_FRAME_SKIP == 0) {
-                    lastDetections = yoloDetector.detectObjects(frame);
-                    threatTracker.updateThreats(lastDetections);
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "startup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 
-                    long threatCount = lastDetections.stream().filter(DetectionResult::isThreat).count();
-                    if (threatCount > 0) {
-                        LOGGER.warning("THREAT DETECTED! " + threatCount + " threat(s) found:");
-                        lastDetections.stream()
-                                .filter(DetectionResult::isThreat)
-                                .forEach(d -> LOGGER.warning("  - " + d.getObjectType() +
-                                        " (confidence: " + String.format("%.2f", d.getConfidenceScore()) + ")"));
-                    }
-                }
+    // Replicas parse the model separately: OpenCV cannot share layer weights between nets, but the model files are
+    // memory-mapped, so every replica reads the same page-cache copy.
+    private static ObjectDetector loadDetector(StartupTimer startupTimer, int replica) {
+        DetectorBackend backend = DetectionConfig.DETECTOR_BACKEND;
+        ObjectDetector detector = startupTimer.time("model load (" + backend + ", replica " + replica + ")", () -> {
+            try {
+                return createDetector(backend);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to initialize " + backend + " detector: " + e.getMessage(), e);
+            }
+        });
 
-                List<DetectionResult> allThreats = threatTracker.getActiveThreats();
-                List<DetectionResult> allToDisplay = new ArrayList<>(lastDetections);
+        if (DetectionConfig.MODEL_WARMUP_ENABLED) {
+            int warmUpSize = DetectionConfig.MODEL_WARMUP_INPUT_SIZE;
+            startupTimer.time("model warm-up at " + warmUpSize + " (replica " + replica + ")",
+                    () -> detector.warmUp(warmUpSize));
+        }
+        return detector;
+    }
 
-                for (DetectionResult threat : allThreats) {
-                    if (!isDuplicateDetection(threat, lastDetections)) {
-                        allToDisplay.add(threat);
-                    }
-                }
+    private static ObjectDetector createDetector(DetectorBackend backend) throws IOException {
+        switch (backend) {
+            case ONNX:
+                return new OnnxYoloDetector();
+            case CASCADE:
+                // The screen runs with a low threshold so weak threat candidates still trigger the full model.
+                float screeningConfidence = Math.min(DetectionConfig.CASCADE_SCREENING_CONFIDENCE,
+                        DetectionConfig.CONFIDENCE_THRESHOLD);
+                ObjectDetector screeningDetector = new OnnxYoloDetector(Paths.get(DetectionConfig.ONNX_MODEL_PATH),
+                        DetectionConfig.ONNX_MAX_BATCH_SIZE, screeningConfidence);
+                return new CascadeDetector(screeningDetector, new YoloDetector(),
+                        DetectionConfig.CASCADE_ESCALATION_CLASSES, screeningConfidence,
+                        DetectionConfig.CONFIDENCE_THRESHOLD);
+            case DARKNET:
+            default:
+                return new YoloDetector();
+        }
+    }
 
-                if (!allToDisplay.isEmpty()) {
-                    videoDisplay.showFrameWithDetections(frame, allToDisplay);
-                } else {
-                    videoDisplay.showFrame(frame);
-                }
+    // Waits for every startup task so nothing is left half-open, then releases whatever did open.
+    private static void releaseStarted(List<CompletableFuture<FrameSource>> sourceFutures,
+                                       List<CompletableFuture<FrameSink>> sinkFutures,
+                                       CompletableFuture<DetectionEventLog> eventLogFuture) {
+        for (CompletableFuture<FrameSink> sinkFuture : sinkFutures) {
+            FrameSink sink = sinkFuture.exceptionally(e -> null).join();
+            if (sink != null) {
+                sink.close();
+            }
+        }
+        for (CompletableFuture<FrameSource> sourceFuture : sourceFutures) {
+            FrameSource source = sourceFuture.exceptionally(e -> null).join();
+            if (source != null) {
+                source.release();
+            }
+        }
+        DetectionEventLog eventLog = eventLogFuture.exceptionally(e -> null).join();
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
 
-                performanceTracker.endFrame();
+    private static DetectionEventLog openEventLog() {
+        try {
+            return new DetectionEventLog();
+        } catch (IOException e) {
+            LOGGER.severe("Unable to open detection event log - events will not be recorded: " + e.getMessage());
+            return null;
+        }
+    }
 
-                if (performanceTracker.getFrameCount() % FPS_LOG_INTERVAL == 0) {
-                    LOGGER.info(String.format("Current FPS: %.2f", performanceTracker.getCurrentFPS()));
-                }
-            } else {
-                LOGGER.warning("Failed to capture frame - camera may be disconnected");
-            }
+    private static AlertDispatcher createAlertDispatcher() {
+        AlertDispatcher dispatcher = new AlertDispatcher();
+        dispatcher.addSink(new LoggingAlertSink());
 
+        if (!DetectionConfig.ALERT_FILE.isEmpty()) {
             try {
-                Thread.sleep(FRAME_SLEEP_MS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                LOGGER.info("Main loop interrupted - shutting down");
-                break;
+                dispatcher.addSink(new FileAlertSink(Paths.get(DetectionConfig.ALERT_FILE)));
+            } catch (IOException e) {
+                LOGGER.severe("Unable to open alert file " + DetectionConfig.ALERT_FILE + ": " + e.getMessage());
             }
         }
+        if (!DetectionConfig.ALERT_WEBHOOK_URL.isEmpty()) {
+            dispatcher.addSink(new WebhookAlertSink(URI.create(DetectionConfig.ALERT_WEBHOOK_URL),
+                    DetectionConfig.ALERT_WEBHOOK_TIMEOUT_MS));
+        }
+        return dispatcher;
     }
 
-    private boolean isDuplicateDetection(DetectionResult detection, List<DetectionResult> detectionList) {
-        for (DetectionResult existing : detectionList) {
-            if (detection.getObjectType().equals(existing.getObjectType()) &&
-                    isNearby(detection.getBoundingBox(), existing.getBoundingBox())) {
-                return true;
-            }
+    private static List<Supplier<FrameSource>> cameraOpeners(int[] cameraIndices) {
+        List<Supplier<FrameSource>> openers = new ArrayList<>();
+        for (int cameraIndex : cameraIndices) {
+            openers.add(() -> new FrameCapture(new CameraManager(cameraIndex)));
         }
-        return false;
+        return openers;
     }
 
-    private boolean isNearby(org.opencv.core.Rect box1, org.opencv.core.Rect box2) {
-        return Math.abs(box1.x - box2.x) < DetectionConfig.THREAT_MATCHING_DISTANCE &&
-                Math.abs(box1.y - box2.y) < DetectionConfig.THREAT_MATCHING_DISTANCE;
+    // A directory is replayed as an image sequence; anything else is opened as a video file.
+    public static FrameSource openRecordedSource(String location) {
+        Path path = Paths.get(location);
+        if (Files.isDirectory(path)) {
+            return new ImageSequenceSource(path, DetectionConfig.IMAGE_SEQUENCE_FPS);
+        }
+        return new VideoFileSource(path);
+    }
+
+    public void start() {
+        running = true;
+        LOGGER.info("Security system starting with " + pipelines.size() + " source(s)...");
+
+        inferenceTracker.registerMBean("inference");
+        loadController.start();
+        tuning.start();
+        if (alertDispatcher != null) {
+            alertDispatcher.start();
+        }
+        for (CameraPipeline pipeline : pipelines) {
+            pipeline.start();
+        }
+        LOGGER.info("Security system ready");
+
+        for (CameraPipeline pipeline : pipelines) {
+            try {
+                pipeline.awaitTermination();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.info("Main thread interrupted - shutting down");
+                break;
+            }
+        }
     }
 
     public void stop() {
-        running = false;
-        LOGGER.info("Security system stopping...");
+        if (running) {
+            running = false;
+            LOGGER.info("Security system stopping...");
+        }
+        for (CameraPipeline pipeline : pipelines) {
+            pipeline.stop();
+        }
     }
 
     public void shutdown() {
+        if (!shutDown.compareAndSet(false, true)) {
+            return;
+        }
         stop();
-        videoDisplay.close();
-        cameraManager.releaseCamera();
-        frameCapture.release();
-        motionDetector.release();
-        threatTracker.clearAllThreats();
+        for (CameraPipeline pipeline : pipelines) {
+            pipeline.shutdown();
+        }
+        tuning.shutdown();
+        loadController.shutdown();
+        inferenceEngine.shutdown();
+        if (alertDispatcher != null) {
+            alertDispatcher.shutdown();
+        }
+        if (eventLog != null) {
+            eventLog.close();
+        }
+        inferenceTracker.unregisterMBean();
         LOGGER.info("Security system shutdown complete");
     }
 
+    // Process-wide: OpenCV has no per-thread setting, so the count applies to every replica and every other OpenCV
+    // call. With a pool, the cores are split so the replicas' parallel sections do not oversubscribe the machine.
+    private static void configureOpenCvThreads() {
+        int threads = DetectionConfig.OPENCV_THREADS;
+        if (threads < 0 && DetectionConfig.DETECTOR_POOL_SIZE > 1) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / DetectionConfig.DETECTOR_POOL_SIZE);
+        }
+        if (threads >= 0) {
+            Core.setNumThreads(threads);
+            LOGGER.info("OpenCV using " + threads + " thread(s) for " + DetectionConfig.DETECTOR_POOL_SIZE + " detector replica(s)");
+        }
+    }
+
     public static void main(String[] args) {
         try {
             nu.pattern.OpenCV.loadLocally();
@@ -161,7 +339,21 @@ public class SecuritySystem {
             System.exit(1);
         }
 
-        SecuritySystem system = new SecuritySystem();
+        MatTracker.setEnabled(DetectionConfig.MAT_LEAK_DEBUG);
+
+        configureOpenCvThreads();
+
+        // Any arguments are recorded videos or image directories to scan instead of the live cameras.
+        SecuritySystem system;
+        if (args.length > 0) {
+            List<Supplier<FrameSource>> openers = new ArrayList<>();
+            for (String location : args) {
+                openers.add(() -> openRecordedSource(location));
+            }
+            system = new SecuritySystem(openers);
+        } else {
+            system = new SecuritySystem();
+        }
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             system.shutdown();
@@ -172,7 +364,8 @@ public class SecuritySystem {
         } catch (Exception e) {
             LOGGER.severe("System error: " + e.getMessage());
             e.printStackTrace();
+        } finally {
             system.shutdown();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.securitysystem.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+// Records how long each startup phase took and where it sat on the startup timeline; phases may run concurrently.
+public class StartupTimer {
+    private static final Logger LOGGER = Logger.getLogger(StartupTimer.class.getName());
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static class Phase {
+        private final String name;
+        private final long startNanos;
+        private final long endNanos;
+
+        public Phase(String name, long startNanos, long endNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+        }
+    }
+
+    private final long originNanos;
+    private final List<Phase> phases;
+
+    public StartupTimer() {
+        this.originNanos = System.nanoTime();
+        this.phases = new ArrayList<>();
+    }
+
+    public <T> T time(String name, Supplier<T> phase) {
+        long start = System.nanoTime();
+        try {
+            return phase.get();
+        } finally {
+            record(name, start, System.nanoTime());
+        }
+    }
+
+    public void time(String name, Runnable phase) {
+        time(name, () -> {
+            phase.run();
+            return null;
+        });
+    }
+
+    private synchronized void record(String name, long startNanos, long endNanos) {
+        phases.add(new Phase(name, startNanos, endNanos));
+    }
+
+    public synchronized void logReport() {
+        StringBuilder report = new StringBuilder(String.format("Startup completed in %.2fs",
+                (System.nanoTime() - originNanos) / NANOS_PER_SECOND));
+        phases.sort((a, b) -> Long.compare(a.startNanos, b.startNanos));
+        for (Phase phase : phases) {
+            report.append(String.format("%n  %-32s %6.2fs (at +%.2fs)", phase.name,
+                    (phase.endNanos - phase.startNanos) / NANOS_PER_SECOND,
+                    (phase.startNanos - originNanos) / NANOS_PER_SECOND));
+        }
+        LOGGER.info(report.toString());
+    }
+}
@@ -0,0 +1,152 @@
+package com.securitysystem.detection;
+
+import com.securitysystem.motion.PerformanceTracker;
+import org.opencv.core.Mat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.logging.Logger;
+
+// Runs a cheap screening model on every frame and the full model only on frames where the screen reports a
+// candidate of an escalation class, however weak. Frames that are not escalated keep the screen's results above the
+// normal confidence threshold, so people and other objects are still reported without the full model's cost.
+public class CascadeDetector implements ObjectDetector {
+    private static final Logger LOGGER = Logger.getLogger(CascadeDetector.class.getName());
+    private static final int REPORT_INTERVAL_FRAMES = 1000;
+
+    private final ObjectDetector screeningDetector;
+    private final ObjectDetector fullDetector;
+    private final BitSet escalationClassIds;
+    private final float screeningConfidence;
+    private float reportConfidence;
+    private long framesScreened;
+    private long framesEscalated;
+    private long intervalEscalated;
+
+    // Scratch reused across calls; the cascade is driven from a single inference thread.
+    private final List<DetectionBatch> screenedBatches;
+    private final List<Mat> escalatedFrames;
+    private final List<DetectionBatch> escalatedResults;
+    private final List<Mat> singleFrame;
+    private final List<DetectionBatch> singleResult;
+
+    // The screening detector must be built with screeningConfidence as its threshold.
+    public CascadeDetector(ObjectDetector screeningDetector, ObjectDetector fullDetector,
+                           List<String> escalationClasses, float screeningConfidence, float reportConfidence) {
+        this.screeningDetector = screeningDetector;
+        this.fullDetector = fullDetector;
+        this.escalationClassIds = new BitSet();
+        for (String escalationClass : escalationClasses) {
+            escalationClassIds.set(DetectionClasses.idOf(escalationClass));
+        }
+        this.screeningConfidence = screeningConfidence;
+        this.reportConfidence = reportConfidence;
+        this.screenedBatches = new ArrayList<>();
+        this.escalatedFrames = new ArrayList<>();
+        this.escalatedResults = new ArrayList<>();
+        this.singleFrame = new ArrayList<>(1);
+        this.singleResult = new ArrayList<>(1);
+    }
+
+    @Override
+    public void detectObjects(Mat frame, DetectionBatch results) {
+        singleFrame.clear();
+        singleFrame.add(frame);
+        singleResult.clear();
+        singleResult.add(results);
+        detectObjectsBatch(singleFrame, singleResult);
+    }
+
+    @Override
+    public void detectObjectsBatch(List<Mat> frames, List<DetectionBatch> results) {
+        while (screenedBatches.size() < frames.size()) {
+            screenedBatches.add(new DetectionBatch());
+        }
+        screeningDetector.detectObjectsBatch(frames, screenedBatches);
+
+        escalatedFrames.clear();
+        escalatedResults.clear();
+        for (int i = 0; i < frames.size(); i++) {
+            DetectionBatch screened = screenedBatches.get(i);
+            if (needsEscalation(screened)) {
+                escalatedFrames.add(frames.get(i));
+                escalatedResults.add(results.get(i));
+            } else {
+                copyConfident(screened, results.get(i));
+            }
+        }
+
+        if (!escalatedFrames.isEmpty()) {
+            fullDetector.detectObjectsBatch(escalatedFrames, escalatedResults);
+        }
+
+        recordEscalations(frames.size(), escalatedFrames.size());
+    }
+
+    private boolean needsEscalation(DetectionBatch candidates) {
+        for (int row = 0; row < candidates.size(); row++) {
+            if (escalationClassIds.get(candidates.getClassId(row))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void copyConfident(DetectionBatch candidates, DetectionBatch results) {
+        results.clear();
+        for (int row = 0; row < candidates.size(); row++) {
+            if (candidates.getConfidence(row) >= reportConfidence) {
+                results.add(candidates, row);
+            }
+        }
+    }
+
+    private void recordEscalations(int screenedCount, int escalatedCount) {
+        long before = framesScreened;
+        framesScreened += screenedCount;
+        framesEscalated += escalatedCount;
+        intervalEscalated += escalatedCount;
+        if (framesScreened / REPORT_INTERVAL_FRAMES != before / REPORT_INTERVAL_FRAMES) {
+            LOGGER.info(String.format("Cascade escalated %d of the last ~%d frames (%d of %d overall)",
+                    intervalEscalated, REPORT_INTERVAL_FRAMES, framesEscalated, framesScreened));
+            intervalEscalated = 0;
+        }
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return screeningDetector.getMaxBatchSize();
+    }
+
+    // Load control resizes the full model, where the cost is; the screen stays at its own size.
+    @Override
+    public int getInputSize() {
+        return fullDetector.getInputSize();
+    }
+
+    @Override
+    public void setInputSize(int inputSize) {
+        fullDetector.setInputSize(inputSize);
+    }
+
+    // The screen never filters harder than what is reported, or it would hide candidates the full model could find.
+    @Override
+    public void setThresholds(float confidenceThreshold, float nmsThreshold) {
+        reportConfidence = confidenceThreshold;
+        screeningDetector.setThresholds(Math.min(screeningConfidence, confidenceThreshold), nmsThreshold);
+        fullDetector.setThresholds(confidenceThreshold, nmsThreshold);
+    }
+
+    @Override
+    public void setPerformanceTracker(PerformanceTracker performanceTracker) {
+        screeningDetector.setPerformanceTracker(performanceTracker);
+        fullDetector.setPerformanceTracker(performanceTracker);
+    }
+
+    @Override
+    public void warmUp(int warmUpInputSize) {
+        screeningDetector.warmUp(screeningDetector.getInputSize());
+        fullDetector.warmUp(warmUpInputSize);
+    }
+}
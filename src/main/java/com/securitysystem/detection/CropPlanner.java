@@ -0,0 +1,214 @@
+package com.securitysystem.detection;
+
+import com.securitysystem.motion.DetectionConfig;
+
+import java.util.Arrays;
+
+// Turns regions of interest into a few square crops for detection. Regions are padded so objects straddling their
+// edge stay whole, overlapping ones are merged, and each merged area is grown to a crop that feeds the network at
+// native resolution: one crop pixel per input pixel, rounded up to the 32-pixel stride. Areas larger than the full
+// input size are cropped as-is and downscaled. Crops are ordered by input size so equal sizes can share a blob.
+class CropPlanner {
+    private static final int STRIDE = 32;
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int padding;
+    private final int minInputSize;
+    private final int maxCrops;
+
+    // Merge scratch as [left, top, right, bottom] per area.
+    private int[] areas;
+    private int areaCount;
+
+    private int[] cropX;
+    private int[] cropY;
+    private int[] cropWidth;
+    private int[] cropHeight;
+    private int[] cropInputSize;
+    private int cropCount;
+
+    public CropPlanner(int padding, int minInputSize, int maxCrops) {
+        if (padding < 0 || minInputSize <= 0 || minInputSize % STRIDE != 0 || maxCrops < 1) {
+            throw new IllegalArgumentException("Invalid crop planner settings: padding " + padding +
+                    ", min input " + minInputSize + ", max crops " + maxCrops);
+        }
+        this.padding = padding;
+        this.minInputSize = minInputSize;
+        this.maxCrops = maxCrops;
+        this.areas = new int[INITIAL_CAPACITY * 4];
+        this.cropX = new int[INITIAL_CAPACITY];
+        this.cropY = new int[INITIAL_CAPACITY];
+        this.cropWidth = new int[INITIAL_CAPACITY];
+        this.cropHeight = new int[INITIAL_CAPACITY];
+        this.cropInputSize = new int[INITIAL_CAPACITY];
+    }
+
+    public CropPlanner() {
+        this(DetectionConfig.ROI_PADDING, DetectionConfig.ROI_MIN_INPUT_SIZE, DetectionConfig.ROI_MAX_CROPS);
+    }
+
+    // Returns false when cropping would not beat one full-frame pass at fullInputSize: too many crops, or more input
+    // pixels in total than the full pass. With fixed-input models every crop uses fullInputSize.
+    public boolean plan(RegionsOfInterest regions, int frameWidth, int frameHeight, int fullInputSize,
+                        boolean variableInputSize) {
+        cropCount = 0;
+        if (regions.isEmpty()) {
+            return false;
+        }
+
+        mergePaddedRegions(regions, frameWidth, frameHeight);
+        if (areaCount > maxCrops) {
+            return false;
+        }
+
+        long fullCost = (long) fullInputSize * fullInputSize;
+        long cost = 0;
+        for (int area = 0; area < areaCount; area++) {
+            int left = areas[area * 4];
+            int top = areas[area * 4 + 1];
+            int side = Math.max(areas[area * 4 + 2] - left, areas[area * 4 + 3] - top);
+
+            int inputSize = fullInputSize;
+            if (variableInputSize) {
+                inputSize = Math.min(fullInputSize, Math.max(minInputSize, roundUpToStride(side)));
+            }
+            cost += (long) inputSize * inputSize;
+            if (cost >= fullCost) {
+                cropCount = 0;
+                return false;
+            }
+
+            addCrop(areas[area * 4], areas[area * 4 + 1], areas[area * 4 + 2], areas[area * 4 + 3],
+                    Math.max(side, inputSize), inputSize, frameWidth, frameHeight);
+        }
+        sortByInputSize();
+        return true;
+    }
+
+    private static int roundUpToStride(int size) {
+        return (size + STRIDE - 1) / STRIDE * STRIDE;
+    }
+
+    private void mergePaddedRegions(RegionsOfInterest regions, int frameWidth, int frameHeight) {
+        if (areas.length < regions.size() * 4) {
+            areas = new int[regions.size() * 4];
+        }
+        areaCount = 0;
+        for (int region = 0; region < regions.size(); region++) {
+            int base = areaCount * 4;
+            areas[base] = Math.max(0, regions.getX(region) - padding);
+            areas[base + 1] = Math.max(0, regions.getY(region) - padding);
+            areas[base + 2] = Math.min(frameWidth, regions.getX(region) + regions.getWidth(region) + padding);
+            areas[base + 3] = Math.min(frameHeight, regions.getY(region) + regions.getHeight(region) + padding);
+            if (areas[base + 2] > areas[base] && areas[base + 3] > areas[base + 1]) {
+                areaCount++;
+            }
+        }
+
+        // A merge can make an area overlap one already passed over, so sweep until nothing changes. Region counts
+        // are small enough that the quadratic sweep is cheaper than anything cleverer.
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < areaCount; i++) {
+                for (int j = i + 1; j < areaCount; j++) {
+                    if (overlaps(i, j)) {
+                        absorb(i, j);
+                        merged = true;
+                        j--;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean overlaps(int i, int j) {
+        int a = i * 4;
+        int b = j * 4;
+        return areas[a] < areas[b + 2] && areas[b] < areas[a + 2] &&
+                areas[a + 1] < areas[b + 3] && areas[b + 1] < areas[a + 3];
+    }
+
+    // Grows area i to cover area j and moves the last area into j's slot.
+    private void absorb(int i, int j) {
+        int a = i * 4;
+        int b = j * 4;
+        areas[a] = Math.min(areas[a], areas[b]);
+        areas[a + 1] = Math.min(areas[a + 1], areas[b + 1]);
+        areas[a + 2] = Math.max(areas[a + 2], areas[b + 2]);
+        areas[a + 3] = Math.max(areas[a + 3], areas[b + 3]);
+
+        int last = --areaCount * 4;
+        System.arraycopy(areas, last, areas, b, 4);
+    }
+
+    // A square of the given side centred on the area, shifted to lie inside the frame and clipped only when the frame
+    // itself is smaller.
+    private void addCrop(int left, int top, int right, int bottom, int side, int inputSize, int frameWidth, int frameHeight) {
+        if (cropCount == cropX.length) {
+            int newCapacity = cropCount * 2;
+            cropX = Arrays.copyOf(cropX, newCapacity);
+            cropY = Arrays.copyOf(cropY, newCapacity);
+            cropWidth = Arrays.copyOf(cropWidth, newCapacity);
+            cropHeight = Arrays.copyOf(cropHeight, newCapacity);
+            cropInputSize = Arrays.copyOf(cropInputSize, newCapacity);
+        }
+
+        int width = Math.min(side, frameWidth);
+        int height = Math.min(side, frameHeight);
+        int x = Math.max(0, Math.min(frameWidth - width, (left + right - width) / 2));
+        int y = Math.max(0, Math.min(frameHeight - height, (top + bottom - height) / 2));
+
+        cropX[cropCount] = x;
+        cropY[cropCount] = y;
+        cropWidth[cropCount] = width;
+        cropHeight[cropCount] = height;
+        cropInputSize[cropCount] = inputSize;
+        cropCount++;
+    }
+
+    // Insertion sort; there are at most maxCrops entries.
+    private void sortByInputSize() {
+        for (int i = 1; i < cropCount; i++) {
+            int x = cropX[i], y = cropY[i], width = cropWidth[i], height = cropHeight[i], inputSize = cropInputSize[i];
+            int j = i - 1;
+            while (j >= 0 && cropInputSize[j] > inputSize) {
+                cropX[j + 1] = cropX[j];
+                cropY[j + 1] = cropY[j];
+                cropWidth[j + 1] = cropWidth[j];
+                cropHeight[j + 1] = cropHeight[j];
+                cropInputSize[j + 1] = cropInputSize[j];
+                j--;
+            }
+            cropX[j + 1] = x;
+            cropY[j + 1] = y;
+            cropWidth[j + 1] = width;
+            cropHeight[j + 1] = height;
+            cropInputSize[j + 1] = inputSize;
+        }
+    }
+
+    public int getCropCount() {
+        return cropCount;
+    }
+
+    public int getX(int crop) {
+        return cropX[crop];
+    }
+
+    public int getY(int crop) {
+        return cropY[crop];
+    }
+
+    public int getWidth(int crop) {
+        return cropWidth[crop];
+    }
+
+    public int getHeight(int crop) {
+        return cropHeight[crop];
+    }
+
+    public int getInputSize(int crop) {
+        return cropInputSize[crop];
+    }
+}
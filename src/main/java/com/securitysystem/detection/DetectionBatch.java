@@ -0,0 +1,160 @@
+package com.securitysystem.detection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+// One frame's detections as parallel primitive arrays, meant to be cleared and refilled every frame by the thread
+// that owns it. Rows are also readable as DetectionResult views, which are cached with the batch so iterating it as
+// a list does not allocate; a view reflects whatever its row holds now, so it is only meaningful until the batch is
+// next cleared.
+public class DetectionBatch {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] classIds;
+    private int[] boxX;
+    private int[] boxY;
+    private int[] boxWidth;
+    private int[] boxHeight;
+    private float[] confidences;
+    private long[] threatBits;
+    private int count;
+    private int threatCount;
+
+    private DetectionResult[] views;
+    private final List<DetectionResult> listView;
+
+    public DetectionBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.classIds = new int[capacity];
+        this.boxX = new int[capacity];
+        this.boxY = new int[capacity];
+        this.boxWidth = new int[capacity];
+        this.boxHeight = new int[capacity];
+        this.confidences = new float[capacity];
+        this.threatBits = new long[(capacity + 63) >> 6];
+        this.views = new DetectionResult[capacity];
+        this.count = 0;
+        this.threatCount = 0;
+        this.listView = new AbstractList<DetectionResult>() {
+            @Override
+            public DetectionResult get(int index) {
+                return DetectionBatch.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    public DetectionBatch() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public void clear() {
+        Arrays.fill(threatBits, 0, (count + 63) >> 6, 0L);
+        count = 0;
+        threatCount = 0;
+    }
+
+    public int add(int classId, int x, int y, int width, int height, float confidence) {
+        if (count == classIds.length) {
+            grow();
+        }
+
+        int row = count++;
+        classIds[row] = classId;
+        boxX[row] = x;
+        boxY[row] = y;
+        boxWidth[row] = width;
+        boxHeight[row] = height;
+        confidences[row] = confidence;
+        if (DetectionClasses.isThreat(classId)) {
+            threatBits[row >> 6] |= 1L << row;
+            threatCount++;
+        }
+        return row;
+    }
+
+    public int add(DetectionBatch source, int row) {
+        return add(source.classIds[row], source.boxX[row], source.boxY[row],
+                source.boxWidth[row], source.boxHeight[row], source.confidences[row]);
+    }
+
+    public void copyFrom(DetectionBatch source) {
+        clear();
+        for (int row = 0; row < source.count; row++) {
+            add(source, row);
+        }
+    }
+
+    private void grow() {
+        int newCapacity = classIds.length * 2;
+        classIds = Arrays.copyOf(classIds, newCapacity);
+        boxX = Arrays.copyOf(boxX, newCapacity);
+        boxY = Arrays.copyOf(boxY, newCapacity);
+        boxWidth = Arrays.copyOf(boxWidth, newCapacity);
+        boxHeight = Arrays.copyOf(boxHeight, newCapacity);
+        confidences = Arrays.copyOf(confidences, newCapacity);
+        threatBits = Arrays.copyOf(threatBits, (newCapacity + 63) >> 6);
+        views = Arrays.copyOf(views, newCapacity);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getClassId(int row) {
+        return classIds[row];
+    }
+
+    public int getX(int row) {
+        return boxX[row];
+    }
+
+    public int getY(int row) {
+        return boxY[row];
+    }
+
+    public int getWidth(int row) {
+        return boxWidth[row];
+    }
+
+    public int getHeight(int row) {
+        return boxHeight[row];
+    }
+
+    public float getConfidence(int row) {
+        return confidences[row];
+    }
+
+    public boolean isThreat(int row) {
+        return (threatBits[row >> 6] & (1L << row)) != 0;
+    }
+
+    public boolean hasThreats() {
+        return threatCount > 0;
+    }
+
+    public DetectionResult get(int row) {
+        if (row < 0 || row >= count) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + count);
+        }
+        DetectionResult view = views[row];
+        if (view == null) {
+            view = new DetectionResult(this, row);
+            views[row] = view;
+        }
+        return view;
+    }
+
+    public List<DetectionResult> asList() {
+        return listView;
+    }
+}
@@ -0,0 +1,57 @@
+package com.securitysystem.detection;
+
+import com.securitysystem.motion.DetectionConfig;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide interning of class names to small int ids, with the threat classes precomputed as a bitset so the
+// per-detection threat check is a single bit test instead of a string scan.
+// Ids are assigned in registration order and never reused; the detectors register their label files at load, so the
+// hot path only ever reads.
+public final class DetectionClasses {
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+    private static volatile long[] threatBits = new long[0];
+
+    private DetectionClasses() {
+    }
+
+    public static int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : register(name);
+    }
+
+    private static synchronized int register(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = names.length;
+        String[] newNames = Arrays.copyOf(names, id + 1);
+        newNames[id] = name;
+        long[] newThreatBits = Arrays.copyOf(threatBits, (id >> 6) + 1);
+        if (DetectionConfig.THREAT_OBJECTS.contains(name.toLowerCase(Locale.ROOT))) {
+            newThreatBits[id >> 6] |= 1L << id;
+        }
+
+        // Publish the arrays before the id, so a reader that finds the id also sees its name and threat bit.
+        threatBits = newThreatBits;
+        names = newNames;
+        ids.put(name, id);
+        return id;
+    }
+
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    public static boolean isThreat(int id) {
+        long[] bits = threatBits;
+        int word = id >> 6;
+        return word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+}
@@ -1,34 +1,62 @@
 package com.securitysystem.detection;
 
-import com.securitysystem.motion.DetectionConfig;
 import org.opencv.core.Rect;
 
+// A view of one row of a DetectionBatch. Views handed out by a batch follow that row, so anything that keeps a
+// detection beyond the current frame should keep a copy().
 public class DetectionResult {
-    private final String objectType;
-    private final Rect boundingBox;
-    private final double confidenceScore;
+    private final DetectionBatch batch;
+    private final int row;
 
+    DetectionResult(DetectionBatch batch, int row) {
+        this.batch = batch;
+        this.row = row;
+    }
+
+    // A standalone detection backed by its own single-row batch.
     public DetectionResult(String objectType, Rect boundingBox, double confidenceScore) {
-        this.objectType = objectType;
-        this.boundingBox = boundingBox;
-        this.confidenceScore = confidenceScore;
+        this.batch = new DetectionBatch(1);
+        this.row = batch.add(DetectionClasses.idOf(objectType), boundingBox.x, boundingBox.y,
+                boundingBox.width, boundingBox.height, (float) confidenceScore);
+    }
+
+    public int getClassId() {
+        return batch.getClassId(row);
     }
 
     public String getObjectType() {
-        return objectType;
+        return DetectionClasses.nameOf(batch.getClassId(row));
+    }
+
+    public int getX() {
+        return batch.getX(row);
+    }
+
+    public int getY() {
+        return batch.getY(row);
+    }
+
+    public int getWidth() {
+        return batch.getWidth(row);
+    }
+
+    public int getHeight() {
+        return batch.getHeight(row);
     }
 
     public Rect getBoundingBox() {
-        return boundingBox;
+        return new Rect(batch.getX(row), batch.getY(row), batch.getWidth(row), batch.getHeight(row));
     }
 
     public double getConfidenceScore() {
-        return confidenceScore;
+        return batch.getConfidence(row);
     }
 
     public boolean isThreat() {
-        return DetectionConfig.THREAT_OBJECTS.contains(objectType.toLowerCase());
+        return batch.isThreat(row);
     }
 
-
+    public DetectionResult copy() {
+        return new DetectionResult(getObjectType(), getBoundingBox(), getConfidenceScore());
+    }
 }
@@ -0,0 +1,8 @@
+package com.securitysystem.detection;
+
+public enum DetectorBackend {
+    DARKNET,
+    ONNX,
+    // A small screening model on every detection frame, escalating to the Darknet model only on threat candidates.
+    CASCADE
+}
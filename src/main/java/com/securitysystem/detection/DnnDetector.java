@@ -0,0 +1,270 @@
+package com.securitysystem.detection;
+
+import com.securitysystem.memory.MatScope;
+import com.securitysystem.motion.DetectionConfig;
+import com.securitysystem.motion.PerformanceTracker;
+import com.securitysystem.motion.PipelineStage;
+import org.opencv.core.*;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Blob, forward, decode and NMS shared by the OpenCV DNN backends. Subclasses load the network and choose the
+// decoder for their model's output layout.
+public abstract class DnnDetector implements ObjectDetector {
+    private final Net net;
+    private final int[] classIds;
+    private final List<String> outputLayerNames;
+    private final int maxBatchSize;
+    private volatile int inputSize;
+    private final OutputDecoder outputDecoder;
+    private final MatScope inferenceScope;
+    private final List<Mat> resultMats;
+    private final CropPlanner cropPlanner;
+    private final List<Mat> cropMats;
+    private PerformanceTracker performanceTracker;
+
+    protected DnnDetector(Net net, List<String> classNames, OutputDecoder outputDecoder,
+                          int maxBatchSize, int inputSize) throws IOException {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size must be at least 1");
+        }
+        if (net.empty()) {
+            throw new IOException("Failed to load detection model. Check if files are corrupted.");
+        }
+        this.net = net;
+        this.classIds = new int[classNames.size()];
+        for (int i = 0; i < classIds.length; i++) {
+            classIds[i] = DetectionClasses.idOf(classNames.get(i));
+        }
+        this.outputLayerNames = getOutputLayerNames(net);
+        this.maxBatchSize = maxBatchSize;
+        this.inputSize = inputSize;
+        this.outputDecoder = outputDecoder;
+        this.inferenceScope = new MatScope();
+        this.resultMats = new ArrayList<>();
+        this.cropPlanner = new CropPlanner();
+        this.cropMats = new ArrayList<>();
+        this.performanceTracker = new PerformanceTracker();
+
+        net.setPreferableBackend(DetectionConfig.DNN_BACKEND);
+        net.setPreferableTarget(DetectionConfig.DNN_TARGET);
+    }
+
+    protected static List<String> loadClassNames(Path filePath) throws IOException {
+        return new ArrayList<>(Files.readAllLines(filePath));
+    }
+
+    // Mapped files can be wrapped as Mats without a copy through the Java heap, so the parsers read them straight
+    // from the page cache. The caller must keep the buffer reachable until the parse returns.
+    protected static MappedByteBuffer mapReadOnly(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Model file too large to map: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    protected static MatOfByte wrap(MappedByteBuffer buffer) {
+        return new MatOfByte(new Mat(buffer.capacity(), 1, CvType.CV_8UC1, buffer));
+    }
+
+    private static List<String> getOutputLayerNames(Net net) {
+        List<String> layerNames = net.getLayerNames();
+        List<String> outputLayerNames = new ArrayList<>();
+
+        MatOfInt outLayers = net.getUnconnectedOutLayers();
+        for (int idx : outLayers.toArray()) {
+            outputLayerNames.add(layerNames.get(idx - 1));
+        }
+        outLayers.release();
+        return outputLayerNames;
+    }
+
+    @Override
+    public void warmUp(int warmUpInputSize) {
+        int configuredInputSize = inputSize;
+        Mat blankFrame = Mat.zeros(DetectionConfig.CAMERA_HEIGHT, DetectionConfig.CAMERA_WIDTH, CvType.CV_8UC3);
+        try {
+            setInputSize(warmUpInputSize);
+            detectObjects(blankFrame, new DetectionBatch());
+        } finally {
+            blankFrame.release();
+            setInputSize(configuredInputSize);
+        }
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public void setThresholds(float confidenceThreshold, float nmsThreshold) {
+        outputDecoder.setThresholds(confidenceThreshold, nmsThreshold);
+    }
+
+    @Override
+    public void setPerformanceTracker(PerformanceTracker performanceTracker) {
+        this.performanceTracker = performanceTracker;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    // YOLO networks accept any multiple of their 32-pixel stride.
+    @Override
+    public void setInputSize(int inputSize) {
+        if (inputSize <= 0 || inputSize % 32 != 0) {
+            throw new IllegalArgumentException("YOLO input size must be a positive multiple of 32: " + inputSize);
+        }
+        this.inputSize = inputSize;
+    }
+
+    // Whether the network accepts blobs of any stride multiple, so crops can be fed at their own size.
+    protected boolean supportsVariableInputSize() {
+        return true;
+    }
+
+    @Override
+    public void detectObjects(Mat matFrame, DetectionBatch results) {
+        try (MatScope scope = inferenceScope) {
+            int size = inputSize;
+            long stageStart = System.nanoTime();
+            Mat blob = scope.track(Dnn.blobFromImage(matFrame, 1.0/255.0, new Size(size, size), new Scalar(0,0,0), true, false));
+            stageStart = recordStage(PipelineStage.BLOB, stageStart);
+
+            net.setInput(blob);
+
+            resultMats.clear();
+            net.forward(resultMats, outputLayerNames);
+            scope.trackAll(resultMats);
+            recordStage(PipelineStage.FORWARD, stageStart);
+
+            decodeDetections(resultMats, 0, 1, matFrame.cols(), matFrame.rows(), size, results);
+        }
+    }
+
+    @Override
+    public void detectObjectsBatch(List<Mat> matFrames, List<DetectionBatch> results) {
+        for (int batchStart = 0; batchStart < matFrames.size(); batchStart += maxBatchSize) {
+            int batchEnd = Math.min(batchStart + maxBatchSize, matFrames.size());
+            List<Mat> batchFrames = matFrames.size() <= maxBatchSize ? matFrames : matFrames.subList(batchStart, batchEnd);
+
+            if (batchFrames.size() == 1) {
+                detectObjects(batchFrames.get(0), results.get(batchStart));
+                continue;
+            }
+
+            try (MatScope scope = inferenceScope) {
+                int size = inputSize;
+                long stageStart = System.nanoTime();
+                Mat blob = scope.track(Dnn.blobFromImages(batchFrames, 1.0/255.0, new Size(size, size), new Scalar(0,0,0), true, false));
+                stageStart = recordStage(PipelineStage.BLOB, stageStart);
+
+                net.setInput(blob);
+
+                resultMats.clear();
+                net.forward(resultMats, outputLayerNames);
+                scope.trackAll(resultMats);
+                recordStage(PipelineStage.FORWARD, stageStart);
+
+                for (int imageIndex = 0; imageIndex < batchFrames.size(); imageIndex++) {
+                    Mat matFrame = batchFrames.get(imageIndex);
+                    decodeDetections(resultMats, imageIndex, batchFrames.size(),
+                            matFrame.cols(), matFrame.rows(), size, results.get(batchStart + imageIndex));
+                }
+            }
+        }
+    }
+
+    // Crops sharing an input size go through the network together, up to the batch limit. Every crop's candidates
+    // are collected in frame coordinates before one NMS, which also removes duplicates where crops overlap.
+    @Override
+    public void detectObjectsInRegions(Mat matFrame, RegionsOfInterest regions, DetectionBatch results) {
+        int size = inputSize;
+        if (!cropPlanner.plan(regions, matFrame.cols(), matFrame.rows(), size, supportsVariableInputSize())) {
+            detectObjects(matFrame, results);
+            return;
+        }
+
+        outputDecoder.clearCandidates();
+        int cropCount = cropPlanner.getCropCount();
+        for (int groupStart = 0; groupStart < cropCount; ) {
+            int cropSize = cropPlanner.getInputSize(groupStart);
+            int groupEnd = groupStart + 1;
+            while (groupEnd < cropCount && groupEnd - groupStart < maxBatchSize &&
+                    cropPlanner.getInputSize(groupEnd) == cropSize) {
+                groupEnd++;
+            }
+
+            try (MatScope scope = inferenceScope) {
+                long stageStart = System.nanoTime();
+                cropMats.clear();
+                for (int crop = groupStart; crop < groupEnd; crop++) {
+                    cropMats.add(scope.track(matFrame.submat(
+                            new Rect(cropPlanner.getX(crop), cropPlanner.getY(crop),
+                                    cropPlanner.getWidth(crop), cropPlanner.getHeight(crop)))));
+                }
+                Mat blob = scope.track(cropMats.size() == 1 ?
+                        Dnn.blobFromImage(cropMats.get(0), 1.0/255.0, new Size(cropSize, cropSize), new Scalar(0,0,0), true, false) :
+                        Dnn.blobFromImages(cropMats, 1.0/255.0, new Size(cropSize, cropSize), new Scalar(0,0,0), true, false));
+                stageStart = recordStage(PipelineStage.BLOB, stageStart);
+
+                net.setInput(blob);
+
+                resultMats.clear();
+                net.forward(resultMats, outputLayerNames);
+                scope.trackAll(resultMats);
+                stageStart = recordStage(PipelineStage.FORWARD, stageStart);
+
+                for (int crop = groupStart; crop < groupEnd; crop++) {
+                    outputDecoder.decodeRegion(resultMats, crop - groupStart, groupEnd - groupStart,
+                            cropPlanner.getX(crop), cropPlanner.getY(crop),
+                            cropPlanner.getWidth(crop), cropPlanner.getHeight(crop), cropSize);
+                }
+                recordStage(PipelineStage.DECODE, stageStart);
+            }
+            groupStart = groupEnd;
+        }
+        cropMats.clear();
+
+        collectDetections(System.nanoTime(), results);
+    }
+
+    private void decodeDetections(List<Mat> resultMats, int imageIndex, int batchSize,
+                                  int frameWidth, int frameHeight, int size, DetectionBatch results) {
+        long stageStart = System.nanoTime();
+        outputDecoder.decode(resultMats, imageIndex, batchSize, frameWidth, frameHeight, size);
+        collectDetections(recordStage(PipelineStage.DECODE, stageStart), results);
+    }
+
+    private void collectDetections(long stageStart, DetectionBatch results) {
+        int[] indicesArray = outputDecoder.nonMaxSuppression();
+        recordStage(PipelineStage.NMS, stageStart);
+        results.clear();
+        for (int idx : indicesArray) {
+            results.add(classIds[outputDecoder.getClassId(idx)],
+                    (int) outputDecoder.getX(idx), (int) outputDecoder.getY(idx),
+                    (int) outputDecoder.getWidth(idx), (int) outputDecoder.getHeight(idx),
+                    outputDecoder.getConfidence(idx));
+        }
+    }
+
+    private long recordStage(PipelineStage stage, long stageStart) {
+        long now = System.nanoTime();
+        performanceTracker.recordStage(stage, now - stageStart);
+        return now;
+    }
+}
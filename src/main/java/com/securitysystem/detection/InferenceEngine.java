@@ -0,0 +1,267 @@
+package com.securitysystem.detection;
+
+import com.securitysystem.config.TuningConfig;
+import com.securitysystem.config.TuningSettings;
+import com.securitysystem.motion.PerformanceTracker;
+import org.opencv.core.Mat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+// Runs inference for every pipeline on a pool of detector replicas, one worker thread per replica. Workers share a
+// single request queue, so whichever replica is free takes the next frame and batches what else is waiting. Requests
+// from one caller can finish out of order across replicas; callers with several in flight restore the order.
+public class InferenceEngine {
+    private static final Logger LOGGER = Logger.getLogger(InferenceEngine.class.getName());
+    private static final long POLL_TIMEOUT_MS = 100;
+    // Each pipeline has at most DETECTION_PIPELINE_DEPTH requests in flight, so this only needs to exceed that
+    // times the number of pipelines; beyond it callers wait to queue.
+    private static final int MAX_PENDING_REQUESTS = 64;
+
+    private static class InferenceRequest {
+        private final CompletableFuture<DetectionBatch> future;
+        private final Mat frame;
+        private final RegionsOfInterest regions;
+        private final DetectionBatch results;
+
+        public InferenceRequest(Mat frame, RegionsOfInterest regions, DetectionBatch results) {
+            this.future = new CompletableFuture<>();
+            this.frame = frame;
+            this.regions = regions;
+            this.results = results;
+        }
+
+        private void complete(RuntimeException failure) {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(results);
+            }
+        }
+    }
+
+    private final List<Worker> workers;
+    private final TuningConfig tuning;
+    private final long batchMaxWaitNanos;
+    private final BlockingQueue<InferenceRequest> pendingRequests;
+    private volatile boolean running;
+
+    // Each replica must be a separate detector instance; none is shared between workers.
+    public InferenceEngine(List<ObjectDetector> replicas, long batchMaxWaitMs, TuningConfig tuning) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("Inference engine needs at least one detector");
+        }
+        this.tuning = tuning;
+        this.batchMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(batchMaxWaitMs);
+        this.pendingRequests = new ArrayBlockingQueue<>(MAX_PENDING_REQUESTS);
+        this.running = true;
+        this.workers = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            workers.add(new Worker(replicas.get(i), "inference-worker-" + i));
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    public InferenceEngine(ObjectDetector detector, long batchMaxWaitMs, TuningConfig tuning) {
+        this(List.of(detector), batchMaxWaitMs, tuning);
+    }
+
+    public void setPerformanceTracker(PerformanceTracker performanceTracker) {
+        for (Worker worker : workers) {
+            worker.detector.setPerformanceTracker(performanceTracker);
+        }
+    }
+
+    public void setInputSize(int inputSize) {
+        for (Worker worker : workers) {
+            worker.detector.setInputSize(inputSize);
+        }
+    }
+
+    // Queues the frame and returns at once; the future completes with results, on a worker thread, once its
+    // detections are in. The frame, regions (may be null) and results must stay untouched until then. Waits only
+    // if the queue is full.
+    public CompletableFuture<DetectionBatch> submit(Mat matFrame, RegionsOfInterest regions, DetectionBatch results) {
+        InferenceRequest request = new InferenceRequest(matFrame, regions, results);
+        if (!running) {
+            request.complete(new IllegalStateException("Inference engine is shut down"));
+            return request.future;
+        }
+        try {
+            enqueue(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.complete(new IllegalStateException("Interrupted while queueing inference", e));
+        }
+        return request.future;
+    }
+
+    // Always leaves the request completed or in a worker's hands. A full queue is retried only while the engine runs,
+    // and a request queued after the workers' final drain would never be taken, so if it is still queued once the
+    // engine has stopped it is failed here; if a worker already took it, that worker completes it.
+    private void enqueue(InferenceRequest request) throws InterruptedException {
+        while (!pendingRequests.offer(request, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (!running) {
+                request.complete(new IllegalStateException("Inference engine is shut down"));
+                return;
+            }
+        }
+        if (!running && pendingRequests.remove(request)) {
+            request.complete(new IllegalStateException("Inference engine is shut down"));
+        }
+    }
+
+    // One replica and the thread that drives it. Everything here is confined to that thread.
+    private class Worker {
+        private final ObjectDetector detector;
+        private final Thread thread;
+        private final List<InferenceRequest> batch;
+        private final List<InferenceRequest> frameRequests;
+        private final List<Mat> batchFrames;
+        private final List<DetectionBatch> batchResults;
+        private TuningSettings appliedSettings;
+
+        public Worker(ObjectDetector detector, String threadName) {
+            this.detector = detector;
+            this.batch = new ArrayList<>();
+            this.frameRequests = new ArrayList<>();
+            this.batchFrames = new ArrayList<>();
+            this.batchResults = new ArrayList<>();
+            this.thread = new Thread(this::dispatchLoop, threadName);
+            this.thread.setDaemon(true);
+        }
+
+        private void dispatchLoop() {
+            while (running) {
+                try {
+                    InferenceRequest first = pendingRequests.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    collectBatch();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                runBatch();
+                batch.clear();
+            }
+
+            failPending();
+        }
+
+        private void collectBatch() throws InterruptedException {
+            int maxBatchSize = detector.getMaxBatchSize();
+            long deadline = System.nanoTime() + batchMaxWaitNanos;
+
+            while (batch.size() < maxBatchSize) {
+                InferenceRequest next = pendingRequests.poll();
+                if (next == null) {
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        break;
+                    }
+                    next = pendingRequests.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                }
+                batch.add(next);
+            }
+        }
+
+        // Region requests are planned and cropped per frame, so only whole-frame requests are batched together.
+        private void runBatch() {
+            applyTuning();
+
+            frameRequests.clear();
+            batchFrames.clear();
+            batchResults.clear();
+            for (int i = 0; i < batch.size(); i++) {
+                InferenceRequest request = batch.get(i);
+                if (request.regions != null) {
+                    runRegionRequest(request);
+                } else {
+                    frameRequests.add(request);
+                    batchFrames.add(request.frame);
+                    batchResults.add(request.results);
+                }
+            }
+            if (frameRequests.isEmpty()) {
+                return;
+            }
+
+            RuntimeException failure = null;
+            try {
+                detector.detectObjectsBatch(batchFrames, batchResults);
+            } catch (RuntimeException e) {
+                LOGGER.severe("Batched inference of " + batchFrames.size() + " frame(s) failed: " + e.getMessage());
+                failure = e;
+            }
+            for (int i = 0; i < frameRequests.size(); i++) {
+                frameRequests.get(i).complete(failure);
+            }
+        }
+
+        private void runRegionRequest(InferenceRequest request) {
+            RuntimeException failure = null;
+            try {
+                detector.detectObjectsInRegions(request.frame, request.regions, request.results);
+            } catch (RuntimeException e) {
+                LOGGER.severe("Region inference failed: " + e.getMessage());
+                failure = e;
+            }
+            request.complete(failure);
+        }
+
+        // Thresholds change only between batches, so every frame in a batch is decoded with the same ones.
+        private void applyTuning() {
+            TuningSettings settings = tuning.current();
+            if (settings == appliedSettings) {
+                return;
+            }
+            detector.setThresholds(settings.getConfidenceThreshold(), settings.getNmsThreshold());
+            appliedSettings = settings;
+        }
+
+        private void failPending() {
+            pendingRequests.drainTo(batch);
+            IllegalStateException shutdown = new IllegalStateException("Inference engine is shut down");
+            for (InferenceRequest request : batch) {
+                request.complete(shutdown);
+            }
+            batch.clear();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        for (Worker worker : workers) {
+            worker.thread.interrupt();
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join(POLL_TIMEOUT_MS * 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        List<InferenceRequest> leftover = new ArrayList<>();
+        pendingRequests.drainTo(leftover);
+        IllegalStateException shutdown = new IllegalStateException("Inference engine is shut down");
+        for (InferenceRequest request : leftover) {
+            request.complete(shutdown);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.securitysystem.detection;
+
+import com.securitysystem.motion.DetectionConfig;
+
+import java.util.Arrays;
+
+// Constant-velocity Kalman filter per detected box. YOLO results correct the filters on detection frames,
+// and skipped frames extrapolate each box centre along its estimated velocity.
+// The x and y axes are filtered independently as [position, velocity] pairs with white-acceleration noise.
+public class KalmanBoxTracker {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double MS_PER_SECOND = 1000.0;
+    private static final double INITIAL_VELOCITY_VARIANCE = 1.0e4;
+
+    private final double processNoise;
+    private final double measurementNoise;
+    private final long maxExtrapolationMs;
+    private final double matchingDistanceSquared;
+    private final SpatialGrid trackGrid;
+
+    private int[] classIds;
+    private double[] confidences;
+    private double[] width;
+    private double[] height;
+    private long[] correctedTimes;
+    // Per-axis state: position, velocity (px/s) and covariance entries pp, pv, vv.
+    private double[] posX;
+    private double[] velX;
+    private double[] covXpp;
+    private double[] covXpv;
+    private double[] covXvv;
+    private double[] posY;
+    private double[] velY;
+    private double[] covYpp;
+    private double[] covYpv;
+    private double[] covYvv;
+    private int trackCount;
+
+    private boolean[] trackMatched;
+    private int[] detectionTracks;
+    private double[] predictedX;
+    private double[] predictedY;
+
+    public KalmanBoxTracker(double processNoise, double measurementNoise, long maxExtrapolationMs, double matchingDistance) {
+        this.processNoise = processNoise;
+        this.measurementNoise = measurementNoise;
+        this.maxExtrapolationMs = maxExtrapolationMs;
+        this.matchingDistanceSquared = matchingDistance * matchingDistance;
+        this.trackGrid = new SpatialGrid(matchingDistance);
+        allocate(INITIAL_CAPACITY);
+        this.trackMatched = new boolean[INITIAL_CAPACITY];
+        this.detectionTracks = new int[INITIAL_CAPACITY];
+        this.predictedX = new double[INITIAL_CAPACITY];
+        this.predictedY = new double[INITIAL_CAPACITY];
+        this.trackCount = 0;
+    }
+
+    public KalmanBoxTracker() {
+        this(DetectionConfig.KALMAN_PROCESS_NOISE,
+                DetectionConfig.KALMAN_MEASUREMENT_NOISE,
+                DetectionConfig.TRACKING_MAX_EXTRAPOLATION_MS,
+                DetectionConfig.THREAT_MATCHING_DISTANCE);
+    }
+
+    private void allocate(int capacity) {
+        classIds = new int[capacity];
+        confidences = new double[capacity];
+        width = new double[capacity];
+        height = new double[capacity];
+        correctedTimes = new long[capacity];
+        posX = new double[capacity];
+        velX = new double[capacity];
+        covXpp = new double[capacity];
+        covXpv = new double[capacity];
+        covXvv = new double[capacity];
+        posY = new double[capacity];
+        velY = new double[capacity];
+        covYpp = new double[capacity];
+        covYpv = new double[capacity];
+        covYvv = new double[capacity];
+    }
+
+    // Feeds a fresh set of YOLO boxes: matched tracks are corrected, new boxes start tracks at rest,
+    // and tracks YOLO no longer reports are dropped.
+    public void correct(DetectionBatch detections, long timestamp) {
+        int detectionCount = detections.size();
+        if (detectionTracks.length < detectionCount) {
+            detectionTracks = new int[Math.max(detectionCount, detectionTracks.length * 2)];
+        }
+        if (trackMatched.length < trackCount) {
+            trackMatched = new boolean[classIds.length];
+            predictedX = new double[classIds.length];
+            predictedY = new double[classIds.length];
+        }
+        Arrays.fill(trackMatched, 0, trackCount, false);
+
+        // Detections are matched against where each track is expected to be now, not where it was last seen.
+        trackGrid.clear();
+        for (int t = 0; t < trackCount; t++) {
+            double dt = extrapolationSeconds(t, timestamp);
+            predictedX[t] = posX[t] + velX[t] * dt;
+            predictedY[t] = posY[t] + velY[t] * dt;
+            trackGrid.insert(t, predictedX[t], predictedY[t]);
+        }
+
+        for (int d = 0; d < detectionCount; d++) {
+            detectionTracks[d] = findNearestTrack(detections, d);
+            if (detectionTracks[d] >= 0) {
+                trackMatched[detectionTracks[d]] = true;
+            }
+        }
+
+        int previousCount = trackCount;
+        for (int d = 0; d < detectionCount; d++) {
+            int track = detectionTracks[d];
+            if (track >= 0) {
+                correctTrack(track, detections, d, timestamp);
+            } else {
+                if (trackCount == classIds.length) {
+                    grow();
+                }
+                startTrack(trackCount++, detections, d, timestamp);
+            }
+        }
+
+        int kept = 0;
+        for (int t = 0; t < trackCount; t++) {
+            if (t < previousCount && !trackMatched[t]) {
+                continue;
+            }
+            if (kept != t) {
+                moveTrack(t, kept);
+            }
+            kept++;
+        }
+        trackCount = kept;
+    }
+
+    private int findNearestTrack(DetectionBatch detections, int d) {
+        int classId = detections.getClassId(d);
+        double centreX = detections.getX(d) + detections.getWidth(d) / 2.0;
+        double centreY = detections.getY(d) + detections.getHeight(d) / 2.0;
+
+        int best = -1;
+        double bestDistanceSquared = matchingDistanceSquared;
+        int neighbours = trackGrid.queryNeighbours(centreX, centreY);
+        for (int n = 0; n < neighbours; n++) {
+            int t = trackGrid.getQueryResult(n);
+            if (trackMatched[t] || classIds[t] != classId) {
+                continue;
+            }
+            double dx = centreX - predictedX[t];
+            double dy = centreY - predictedY[t];
+            double distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared < bestDistanceSquared) {
+                bestDistanceSquared = distanceSquared;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    private void startTrack(int t, DetectionBatch detections, int d, long timestamp) {
+        classIds[t] = detections.getClassId(d);
+        confidences[t] = detections.getConfidence(d);
+        width[t] = detections.getWidth(d);
+        height[t] = detections.getHeight(d);
+        correctedTimes[t] = timestamp;
+
+        posX[t] = detections.getX(d) + width[t] / 2.0;
+        velX[t] = 0;
+        covXpp[t] = measurementNoise;
+        covXpv[t] = 0;
+        covXvv[t] = INITIAL_VELOCITY_VARIANCE;
+
+        posY[t] = detections.getY(d) + height[t] / 2.0;
+        velY[t] = 0;
+        covYpp[t] = measurementNoise;
+        covYpv[t] = 0;
+        covYvv[t] = INITIAL_VELOCITY_VARIANCE;
+    }
+
+    private void correctTrack(int t, DetectionBatch detections, int d, long timestamp) {
+        int boxWidth = detections.getWidth(d);
+        int boxHeight = detections.getHeight(d);
+        double dt = Math.max(0, timestamp - correctedTimes[t]) / MS_PER_SECOND;
+        double dt2 = dt * dt;
+        double q = processNoise;
+        double r = measurementNoise;
+
+        // Predict: x' = F x, P' = F P F^T + Q with F = [[1, dt], [0, 1]].
+        posX[t] += velX[t] * dt;
+        covXpp[t] += 2 * dt * covXpv[t] + dt2 * covXvv[t] + q * dt2 * dt2 / 4;
+        covXpv[t] += dt * covXvv[t] + q * dt2 * dt / 2;
+        covXvv[t] += q * dt2;
+        posY[t] += velY[t] * dt;
+        covYpp[t] += 2 * dt * covYpv[t] + dt2 * covYvv[t] + q * dt2 * dt2 / 4;
+        covYpv[t] += dt * covYvv[t] + q * dt2 * dt / 2;
+        covYvv[t] += q * dt2;
+
+        // Update with the measured centre.
+        double innovationX = detections.getX(d) + boxWidth / 2.0 - posX[t];
+        double gainXp = covXpp[t] / (covXpp[t] + r);
+        double gainXv = covXpv[t] / (covXpp[t] + r);
+        posX[t] += gainXp * innovationX;
+        velX[t] += gainXv * innovationX;
+        covXvv[t] -= gainXv * covXpv[t];
+        covXpv[t] *= (1 - gainXp);
+        covXpp[t] *= (1 - gainXp);
+
+        double innovationY = detections.getY(d) + boxHeight / 2.0 - posY[t];
+        double gainYp = covYpp[t] / (covYpp[t] + r);
+        double gainYv = covYpv[t] / (covYpp[t] + r);
+        posY[t] += gainYp * innovationY;
+        velY[t] += gainYv * innovationY;
+        covYvv[t] -= gainYv * covYpv[t];
+        covYpv[t] *= (1 - gainYp);
+        covYpp[t] *= (1 - gainYp);
+
+        width[t] = boxWidth;
+        height[t] = boxHeight;
+        confidences[t] = detections.getConfidence(d);
+        correctedTimes[t] = timestamp;
+    }
+
+    // Replaces the contents of predictions with the boxes advanced to the given time along each track's velocity,
+    // capped at the extrapolation horizon.
+    public void predict(long timestamp, DetectionBatch predictions) {
+        predictions.clear();
+        for (int t = 0; t < trackCount; t++) {
+            double dt = extrapolationSeconds(t, timestamp);
+            double centreX = posX[t] + velX[t] * dt;
+            double centreY = posY[t] + velY[t] * dt;
+
+            predictions.add(classIds[t],
+                    (int) Math.round(centreX - width[t] / 2), (int) Math.round(centreY - height[t] / 2),
+                    (int) Math.round(width[t]), (int) Math.round(height[t]), (float) confidences[t]);
+        }
+    }
+
+    private double extrapolationSeconds(int t, long timestamp) {
+        long elapsedMs = Math.min(Math.max(0, timestamp - correctedTimes[t]), maxExtrapolationMs);
+        return elapsedMs / MS_PER_SECOND;
+    }
+
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    private void moveTrack(int from, int to) {
+        classIds[to] = classIds[from];
+        confidences[to] = confidences[from];
+        width[to] = width[from];
+        height[to] = height[from];
+        correctedTimes[to] = correctedTimes[from];
+        posX[to] = posX[from];
+        velX[to] = velX[from];
+        covXpp[to] = covXpp[from];
+        covXpv[to] = covXpv[from];
+        covXvv[to] = covXvv[from];
+        posY[to] = posY[from];
+        velY[to] = velY[from];
+        covYpp[to] = covYpp[from];
+        covYpv[to] = covYpv[from];
+        covYvv[to] = covYvv[from];
+    }
+
+    private void grow() {
+        int newCapacity = classIds.length * 2;
+        classIds = Arrays.copyOf(classIds, newCapacity);
+        confidences = Arrays.copyOf(confidences, newCapacity);
+        width = Arrays.copyOf(width, newCapacity);
+        height = Arrays.copyOf(height, newCapacity);
+        correctedTimes = Arrays.copyOf(correctedTimes, newCapacity);
+        posX = Arrays.copyOf(posX, newCapacity);
+        velX = Arrays.copyOf(velX, newCapacity);
+        covXpp = Arrays.copyOf(covXpp, newCapacity);
+        covXpv = Arrays.copyOf(covXpv, newCapacity);
+        covXvv = Arrays.copyOf(covXvv, newCapacity);
+        posY = Arrays.copyOf(posY, newCapacity);
+        velY = Arrays.copyOf(velY, newCapacity);
+        covYpp = Arrays.copyOf(covYpp, newCapacity);
+        covYpv = Arrays.copyOf(covYpv, newCapacity);
+        covYvv = Arrays.copyOf(covYvv, newCapacity);
+    }
+
+    public void clear() {
+        trackCount = 0;
+    }
+}
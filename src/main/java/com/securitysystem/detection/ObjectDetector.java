@@ -0,0 +1,35 @@
+package com.securitysystem.detection;
+
+import com.securitysystem.motion.PerformanceTracker;
+import org.opencv.core.Mat;
+
+import java.util.List;
+
+// A detection backend. Implementations are driven from a single inference thread and need not be thread-safe.
+public interface ObjectDetector {
+    // Replaces the contents of results with the frame's detections.
+    void detectObjects(Mat frame, DetectionBatch results);
+
+    // Fills results.get(i) with the detections for frames.get(i); results must hold at least as many batches.
+    void detectObjectsBatch(List<Mat> frames, List<DetectionBatch> results);
+
+    // Looks only at crops around the regions, mapping boxes back to frame coordinates, when that is cheaper than a
+    // full-frame pass. Backends without crop support, or plans that would not pay off, run the whole frame.
+    default void detectObjectsInRegions(Mat frame, RegionsOfInterest regions, DetectionBatch results) {
+        detectObjects(frame, results);
+    }
+
+    int getMaxBatchSize();
+
+    int getInputSize();
+
+    // Takes effect from the next forward pass. Models exported with a fixed input shape may ignore it.
+    void setInputSize(int inputSize);
+
+    void setThresholds(float confidenceThreshold, float nmsThreshold);
+
+    void setPerformanceTracker(PerformanceTracker performanceTracker);
+
+    // Runs one inference on a blank frame so lazy allocations happen before the first real frame rather than on it.
+    void warmUp(int warmUpInputSize);
+}
@@ -0,0 +1,61 @@
+package com.securitysystem.detection;
+
+import com.securitysystem.motion.DetectionConfig;
+import org.opencv.core.MatOfByte;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// A YOLOv8 model exported to ONNX, e.g. yolov8n or an INT8-quantized export.
+public class OnnxYoloDetector extends DnnDetector {
+    private final boolean dynamicInput;
+
+    public OnnxYoloDetector() throws IOException {
+        this(Paths.get(DetectionConfig.ONNX_MODEL_PATH), DetectionConfig.ONNX_MAX_BATCH_SIZE,
+                DetectionConfig.CONFIDENCE_THRESHOLD);
+    }
+
+    public OnnxYoloDetector(Path modelPath, int maxBatchSize, float confidenceThreshold) throws IOException {
+        super(loadOnnxModel(modelPath),
+                loadClassNames(Paths.get(DetectionConfig.ONNX_CLASS_NAMES_PATH)),
+                new YoloV8OutputDecoder(confidenceThreshold, DetectionConfig.NMS_THRESHOLD),
+                maxBatchSize,
+                DetectionConfig.ONNX_INPUT_SIZE);
+        this.dynamicInput = DetectionConfig.ONNX_DYNAMIC_INPUT;
+    }
+
+    private static Net loadOnnxModel(Path modelPath) throws IOException {
+        if (!Files.exists(modelPath)) {
+            throw new FileNotFoundException("ONNX model not found at: " + modelPath.toAbsolutePath());
+        }
+
+        MappedByteBuffer modelBuffer = mapReadOnly(modelPath);
+        MatOfByte modelMat = wrap(modelBuffer);
+        try {
+            return Dnn.readNetFromONNX(modelMat);
+        } finally {
+            modelMat.release();
+            Reference.reachabilityFence(modelBuffer);
+        }
+    }
+
+    // Most exports fix the input shape, so load-control resizes are ignored unless the model was exported dynamic.
+    @Override
+    public void setInputSize(int inputSize) {
+        if (dynamicInput) {
+            super.setInputSize(inputSize);
+        }
+    }
+
+    @Override
+    protected boolean supportsVariableInputSize() {
+        return dynamicInput;
+    }
+}
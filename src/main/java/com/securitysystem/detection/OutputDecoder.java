@@ -0,0 +1,143 @@
+package com.securitysystem.detection;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.MatOfRect2d;
+import org.opencv.dnn.Dnn;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Turns one image's rows of a network's raw outputs into candidate boxes in frame coordinates, then runs
+// non-maximum suppression over them. Subclasses only know their model's output layout; candidate storage and
+// NMS buffers are shared and reused across frames.
+public abstract class OutputDecoder {
+    private static final int BOX_FIELDS = 4;
+    private static final int INITIAL_CAPACITY = 64;
+
+    protected float confidenceThreshold;
+    private float nmsThreshold;
+
+    private double[] boxes;
+    private float[] confidences;
+    private int[] classIds;
+    private int candidateCount;
+    private double offsetX;
+    private double offsetY;
+
+    private final MatOfRect2d boxesMat;
+    private final MatOfFloat confidencesMat;
+    private final MatOfInt indicesMat;
+
+    protected OutputDecoder(float confidenceThreshold, float nmsThreshold) {
+        this.confidenceThreshold = confidenceThreshold;
+        this.nmsThreshold = nmsThreshold;
+        this.boxes = new double[INITIAL_CAPACITY * BOX_FIELDS];
+        this.confidences = new float[INITIAL_CAPACITY];
+        this.classIds = new int[INITIAL_CAPACITY];
+        this.candidateCount = 0;
+        this.boxesMat = new MatOfRect2d();
+        this.confidencesMat = new MatOfFloat();
+        this.indicesMat = new MatOfInt();
+    }
+
+    // Takes effect from the next decode.
+    public void setThresholds(float confidenceThreshold, float nmsThreshold) {
+        this.confidenceThreshold = confidenceThreshold;
+        this.nmsThreshold = nmsThreshold;
+    }
+
+    // Replaces the candidates with one image's. inputSize is the square network input the image was resized to,
+    // for layouts that report boxes in input pixels.
+    public void decode(List<Mat> resultMats, int imageIndex, int batchSize,
+                       int frameWidth, int frameHeight, int inputSize) {
+        clearCandidates();
+        decodeRegion(resultMats, imageIndex, batchSize, 0, 0, frameWidth, frameHeight, inputSize);
+    }
+
+    // Adds the candidates for one crop of a frame, shifted by the crop's origin, to those already collected, so every
+    // crop of the frame goes through a single NMS.
+    public void decodeRegion(List<Mat> resultMats, int imageIndex, int batchSize,
+                             int regionX, int regionY, int regionWidth, int regionHeight, int inputSize) {
+        offsetX = regionX;
+        offsetY = regionY;
+        decodeCandidates(resultMats, imageIndex, batchSize, regionWidth, regionHeight, inputSize);
+    }
+
+    // Adds one image's candidates with boxes in image pixels.
+    protected abstract void decodeCandidates(List<Mat> resultMats, int imageIndex, int batchSize,
+                                             int imageWidth, int imageHeight, int inputSize);
+
+    public void clearCandidates() {
+        candidateCount = 0;
+    }
+
+    protected void addCandidate(double x, double y, double width, double height, float confidence, int classId) {
+        if (candidateCount == confidences.length) {
+            int newCapacity = confidences.length * 2;
+            boxes = Arrays.copyOf(boxes, newCapacity * BOX_FIELDS);
+            confidences = Arrays.copyOf(confidences, newCapacity);
+            classIds = Arrays.copyOf(classIds, newCapacity);
+        }
+
+        int boxBase = candidateCount * BOX_FIELDS;
+        boxes[boxBase] = x + offsetX;
+        boxes[boxBase + 1] = y + offsetY;
+        boxes[boxBase + 2] = width;
+        boxes[boxBase + 3] = height;
+        confidences[candidateCount] = confidence;
+        classIds[candidateCount] = classId;
+        candidateCount++;
+    }
+
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    // Returns the indexes of the candidates that survive non-maximum suppression.
+    public int[] nonMaxSuppression() {
+        if (candidateCount == 0) {
+            return new int[0];
+        }
+
+        // Mat.put clamps the copy to the Mat's size, so the oversized candidate arrays are passed as-is.
+        boxesMat.alloc(candidateCount);
+        boxesMat.put(0, 0, boxes);
+        confidencesMat.alloc(candidateCount);
+        confidencesMat.put(0, 0, confidences);
+
+        Dnn.NMSBoxes(boxesMat, confidencesMat, confidenceThreshold, nmsThreshold, indicesMat);
+        return indicesMat.toArray();
+    }
+
+    public double getX(int index) {
+        return boxes[index * BOX_FIELDS];
+    }
+
+    public double getY(int index) {
+        return boxes[index * BOX_FIELDS + 1];
+    }
+
+    public double getWidth(int index) {
+        return boxes[index * BOX_FIELDS + 2];
+    }
+
+    public double getHeight(int index) {
+        return boxes[index * BOX_FIELDS + 3];
+    }
+
+    public float getConfidence(int index) {
+        return confidences[index];
+    }
+
+    public int getClassId(int index) {
+        return classIds[index];
+    }
+
+    public void release() {
+        boxesMat.release();
+        confidencesMat.release();
+        indicesMat.release();
+    }
+}
@@ -0,0 +1,69 @@
+package com.securitysystem.detection;
+
+import java.util.Arrays;
+
+// Frame areas worth a closer look, e.g. motion regions and the boxes of tracked threats, as primitive rects in frame
+// coordinates. Reused frame to frame by its owner.
+public class RegionsOfInterest {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] regionX;
+    private int[] regionY;
+    private int[] regionWidth;
+    private int[] regionHeight;
+    private int count;
+
+    public RegionsOfInterest() {
+        this.regionX = new int[INITIAL_CAPACITY];
+        this.regionY = new int[INITIAL_CAPACITY];
+        this.regionWidth = new int[INITIAL_CAPACITY];
+        this.regionHeight = new int[INITIAL_CAPACITY];
+        this.count = 0;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public void add(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (count == regionX.length) {
+            int newCapacity = count * 2;
+            regionX = Arrays.copyOf(regionX, newCapacity);
+            regionY = Arrays.copyOf(regionY, newCapacity);
+            regionWidth = Arrays.copyOf(regionWidth, newCapacity);
+            regionHeight = Arrays.copyOf(regionHeight, newCapacity);
+        }
+        regionX[count] = x;
+        regionY[count] = y;
+        regionWidth[count] = width;
+        regionHeight[count] = height;
+        count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getX(int region) {
+        return regionX[region];
+    }
+
+    public int getY(int region) {
+        return regionY[region];
+    }
+
+    public int getWidth(int region) {
+        return regionWidth[region];
+    }
+
+    public int getHeight(int region) {
+        return regionHeight[region];
+    }
+}
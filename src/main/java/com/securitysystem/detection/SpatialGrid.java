@@ -0,0 +1,126 @@
+package com.securitysystem.detection;
+
+import java.util.Arrays;
+
+// Uniform-grid spatial hash over points, backed by primitive arrays and rebuilt per frame.
+// With a cell size equal to the match radius, every point within that radius of a query
+// lies in the query's cell or one of its eight neighbours.
+public class SpatialGrid {
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private final double cellSize;
+    private long[] tableKeys;
+    private int[] tableHeads;
+    private int usedCells;
+    private int[] entryIds;
+    private long[] entryCells;
+    private int[] entryNext;
+    private int entryCount;
+    private int[] queryResults;
+
+    public SpatialGrid(double cellSize) {
+        this.cellSize = cellSize;
+        this.entryIds = new int[MIN_CAPACITY];
+        this.entryCells = new long[MIN_CAPACITY];
+        this.entryNext = new int[MIN_CAPACITY];
+        this.queryResults = new int[MIN_CAPACITY];
+        allocateTable(MIN_CAPACITY * 2);
+    }
+
+    private void allocateTable(int tableSize) {
+        tableKeys = new long[tableSize];
+        tableHeads = new int[tableSize];
+        Arrays.fill(tableKeys, EMPTY_KEY);
+        usedCells = 0;
+    }
+
+    public void clear() {
+        Arrays.fill(tableKeys, EMPTY_KEY);
+        usedCells = 0;
+        entryCount = 0;
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    public void insert(int id, double x, double y) {
+        if (entryCount == entryIds.length) {
+            int newCapacity = entryIds.length * 2;
+            entryIds = Arrays.copyOf(entryIds, newCapacity);
+            entryCells = Arrays.copyOf(entryCells, newCapacity);
+            entryNext = Arrays.copyOf(entryNext, newCapacity);
+        }
+
+        entryIds[entryCount] = id;
+        entryCells[entryCount] = cellKey(cellOf(x), cellOf(y));
+        link(entryCount);
+        entryCount++;
+
+        if (usedCells * 2 > tableKeys.length) {
+            allocateTable(tableKeys.length * 2);
+            for (int entry = 0; entry < entryCount; entry++) {
+                link(entry);
+            }
+        }
+    }
+
+    private void link(int entry) {
+        long key = entryCells[entry];
+        int slot = findSlot(key);
+        if (tableKeys[slot] == EMPTY_KEY) {
+            tableKeys[slot] = key;
+            tableHeads[slot] = -1;
+            usedCells++;
+        }
+        entryNext[entry] = tableHeads[slot];
+        tableHeads[slot] = entry;
+    }
+
+    // Collects the ids in the 3x3 block of cells around (x, y); read them back with getQueryResult.
+    public int queryNeighbours(double x, double y) {
+        int queryCount = 0;
+        long centreX = cellOf(x);
+        long centreY = cellOf(y);
+
+        for (long cellX = centreX - 1; cellX <= centreX + 1; cellX++) {
+            for (long cellY = centreY - 1; cellY <= centreY + 1; cellY++) {
+                int slot = findSlot(cellKey(cellX, cellY));
+                if (tableKeys[slot] == EMPTY_KEY) {
+                    continue;
+                }
+                for (int entry = tableHeads[slot]; entry != -1; entry = entryNext[entry]) {
+                    if (queryCount == queryResults.length) {
+                        queryResults = Arrays.copyOf(queryResults, queryResults.length * 2);
+                    }
+                    queryResults[queryCount++] = entryIds[entry];
+                }
+            }
+        }
+        return queryCount;
+    }
+
+    public int getQueryResult(int index) {
+        return queryResults[index];
+    }
+
+    private long cellOf(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(long cellX, long cellY) {
+        return (cellX << 32) ^ (cellY & 0xffffffffL);
+    }
+
+    private int findSlot(long key) {
+        int mask = tableKeys.length - 1;
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (mixed ^ (mixed >>> 32)) & mask;
+
+        while (tableKeys[slot] != EMPTY_KEY && tableKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
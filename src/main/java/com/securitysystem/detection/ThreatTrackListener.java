@@ -0,0 +1,15 @@
+package com.securitysystem.detection;
+
+// Notified on the detection thread, so implementations must return quickly. The detection is a view into the
+// tracker's per-frame data; keep a copy() of it, not the view, beyond the callback.
+public interface ThreatTrackListener {
+
+    void onTrackStarted(long trackId, DetectionResult detection, long timestamp);
+
+    default void onTrackUpdated(long trackId, DetectionResult detection, long timestamp) {
+    }
+
+    // detection holds the track's last known box; timestamp is when the expiry was noticed.
+    default void onTrackExpired(long trackId, DetectionResult detection, long timestamp) {
+    }
+}
@@ -1,136 +1,315 @@
 package com.securitysystem.detection;
 
 import com.securitysystem.motion.DetectionConfig;
-import org.opencv.core.Rect;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class ThreatTracker {
+    private static final int INITIAL_CAPACITY = 16;
 
-    private static class ThreatInfo {
-        private Rect boundingBox;
-        private final String objectType;
-        private final double confidence;
-        private long lastSeenTime;
-
-        public ThreatInfo(Rect boundingBox, String objectType, double confidence, long lastSeenTime) {
-            this.boundingBox = boundingBox;
-            this.objectType = objectType;
-            this.confidence = confidence;
-            this.lastSeenTime = lastSeenTime;
-        }
+    private long timeoutMs;
+    private final double matchingDistance;
+    private final double matchingDistanceSquared;
+    private final SpatialGrid trackGrid;
+
+    // Track state, one slot per active threat, kept dense by cleanupOldThreats.
+    private long[] trackIds;
+    private int[] classIds;
+    private int[] boxX;
+    private int[] boxY;
+    private int[] boxWidth;
+    private int[] boxHeight;
+    private double[] confidences;
+    private long[] lastSeenTimes;
+    private int trackCount;
+    private long nextTrackId;
+    private final List<ThreatTrackListener> trackListeners;
+
+    // Per-update scratch for the assignment step.
+    private long[] packedPairs;
+    private int[] pairDetections;
+    private int[] pairTracks;
+    private int[] detectionTracks;
+    private boolean[] trackMatched;
+    // Holds an expiring track's last position for its listeners, since the track itself is being removed.
+    private final DetectionBatch expiredTrack;
+
+    public ThreatTracker(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        this.matchingDistance = DetectionConfig.THREAT_MATCHING_DISTANCE;
+        this.matchingDistanceSquared = matchingDistance * matchingDistance;
+        this.trackGrid = new SpatialGrid(matchingDistance);
+        this.trackIds = new long[INITIAL_CAPACITY];
+        this.classIds = new int[INITIAL_CAPACITY];
+        this.boxX = new int[INITIAL_CAPACITY];
+        this.boxY = new int[INITIAL_CAPACITY];
+        this.boxWidth = new int[INITIAL_CAPACITY];
+        this.boxHeight = new int[INITIAL_CAPACITY];
+        this.confidences = new double[INITIAL_CAPACITY];
+        this.lastSeenTimes = new long[INITIAL_CAPACITY];
+        this.trackCount = 0;
+        this.nextTrackId = 1;
+        this.trackListeners = new ArrayList<>();
+        this.packedPairs = new long[INITIAL_CAPACITY];
+        this.pairDetections = new int[INITIAL_CAPACITY];
+        this.pairTracks = new int[INITIAL_CAPACITY];
+        this.detectionTracks = new int[INITIAL_CAPACITY];
+        this.trackMatched = new boolean[INITIAL_CAPACITY];
+        this.expiredTrack = new DetectionBatch(1);
+    }
+
+    public ThreatTracker() {
+        this(DetectionConfig.THREAT_TIMEOUT_MS);
+    }
+
+    // Applies from the next update; existing tracks are aged against the new timeout.
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public void addTrackListener(ThreatTrackListener trackListener) {
+        trackListeners.add(trackListener);
+    }
+
+    public void updateThreats(DetectionBatch newDetections) {
+        updateThreats(newDetections, System.currentTimeMillis());
+    }
 
-        public Rect getBoundingBox() {
-            return boundingBox;
+    // currentTime is the detections' frame timestamp, so recorded footage ages tracks on its own timeline.
+    // Listeners receive views into newDetections, valid only for the duration of the callback.
+    public void updateThreats(DetectionBatch newDetections, long currentTime) {
+        int detectionCount = newDetections.size();
+
+        buildTrackGrid();
+        int pairCount = collectCandidatePairs(newDetections);
+        assignPairs(pairCount, detectionCount);
+
+        for (int d = 0; d < detectionCount; d++) {
+            if (!newDetections.isThreat(d)) {
+                continue;
+            }
+
+            int track = detectionTracks[d];
+            if (track >= 0) {
+                lastSeenTimes[track] = currentTime;
+                setBox(track, newDetections, d);
+                for (int l = 0; l < trackListeners.size(); l++) {
+                    trackListeners.get(l).onTrackUpdated(trackIds[track], newDetections.get(d), currentTime);
+                }
+            } else {
+                addTrack(newDetections, d, currentTime);
+            }
         }
 
-        public String getObjectType() {
-            return objectType;
+        cleanupOldThreats(currentTime);
+    }
+
+    private void buildTrackGrid() {
+        trackGrid.clear();
+        for (int t = 0; t < trackCount; t++) {
+            trackGrid.insert(t, centreX(boxX[t], boxWidth[t]), centreY(boxY[t], boxHeight[t]));
         }
+    }
 
-        public double getConfidence() {
-            return confidence;
+    // Scores every same-class (detection, track) pair within the matching distance. Costs are non-negative floats,
+    // so their bit patterns sort in cost order and can be packed above the pair index for a primitive sort.
+    private int collectCandidatePairs(DetectionBatch newDetections) {
+        int detectionCount = newDetections.size();
+        if (detectionTracks.length < detectionCount) {
+            detectionTracks = new int[Math.max(detectionCount, detectionTracks.length * 2)];
         }
 
-        public long getLastSeenTime() {
-            return lastSeenTime;
+        int pairCount = 0;
+        for (int d = 0; d < detectionCount; d++) {
+            detectionTracks[d] = -1;
+            if (!newDetections.isThreat(d) || trackCount == 0) {
+                continue;
+            }
+
+            int classId = newDetections.getClassId(d);
+            int x = newDetections.getX(d);
+            int y = newDetections.getY(d);
+            int width = newDetections.getWidth(d);
+            int height = newDetections.getHeight(d);
+            double detectionCentreX = centreX(x, width);
+            double detectionCentreY = centreY(y, height);
+
+            int neighbours = trackGrid.queryNeighbours(detectionCentreX, detectionCentreY);
+            for (int n = 0; n < neighbours; n++) {
+                int t = trackGrid.getQueryResult(n);
+                if (classIds[t] != classId) {
+                    continue;
+                }
+
+                double dx = detectionCentreX - centreX(boxX[t], boxWidth[t]);
+                double dy = detectionCentreY - centreY(boxY[t], boxHeight[t]);
+                double distanceSquared = dx * dx + dy * dy;
+                if (distanceSquared >= matchingDistanceSquared) {
+                    continue;
+                }
+
+                float cost = (float) (distanceSquared / matchingDistanceSquared + (1.0 - intersectionOverUnion(x, y, width, height, t)));
+                if (pairCount == packedPairs.length) {
+                    growPairs();
+                }
+                pairDetections[pairCount] = d;
+                pairTracks[pairCount] = t;
+                packedPairs[pairCount] = ((long) Float.floatToIntBits(cost) << 32) | pairCount;
+                pairCount++;
+            }
         }
+        return pairCount;
+    }
 
-        public void updateTimestamp(long newTime) {
-            this.lastSeenTime = newTime;
+    // Global greedy assignment: cheapest pairs first, each detection and track used at most once.
+    private void assignPairs(int pairCount, int detectionCount) {
+        if (trackMatched.length < trackCount) {
+            trackMatched = new boolean[trackIds.length];
         }
+        Arrays.fill(trackMatched, 0, trackCount, false);
+        Arrays.sort(packedPairs, 0, pairCount);
 
-        public void updatePosition(Rect newBox) {
-            this.boundingBox = newBox;
+        for (int p = 0; p < pairCount; p++) {
+            int pair = (int) packedPairs[p];
+            int d = pairDetections[pair];
+            int t = pairTracks[pair];
+            if (detectionTracks[d] < 0 && !trackMatched[t]) {
+                detectionTracks[d] = t;
+                trackMatched[t] = true;
+            }
         }
     }
 
-    private final List<ThreatInfo> activeThreats;
-    private final long timeoutMs;
+    private double intersectionOverUnion(int x, int y, int width, int height, int t) {
+        int left = Math.max(x, boxX[t]);
+        int top = Math.max(y, boxY[t]);
+        int right = Math.min(x + width, boxX[t] + boxWidth[t]);
+        int bottom = Math.min(y + height, boxY[t] + boxHeight[t]);
+        if (right <= left || bottom <= top) {
+            return 0.0;
+        }
 
-    public ThreatTracker(long timeoutMs) {
-        this.activeThreats = new ArrayList<>();
-        this.timeoutMs = timeoutMs;
+        double intersection = (double) (right - left) * (bottom - top);
+        double union = (double) width * height + (double) boxWidth[t] * boxHeight[t] - intersection;
+        return union > 0 ? intersection / union : 0.0;
     }
 
-    public ThreatTracker() {
-        this(DetectionConfig.THREAT_TIMEOUT_MS);
+    private static double centreX(int x, int width) {
+        return x + width / 2.0;
     }
 
-    public void updateThreats(List<DetectionResult> newDetections) {
-        long currentTime = System.currentTimeMillis();
-
-        for (DetectionResult detection : newDetections) {
-            if (detection.isThreat()) {
-                ThreatInfo existingThreat = findMatchingThreat(detection);
-
-                if (existingThreat != null) {
-                    existingThreat.updateTimestamp(currentTime);
-                    existingThreat.updatePosition(detection.getBoundingBox());
-                } else {
-                    ThreatInfo newThreat = new ThreatInfo(
-                            detection.getBoundingBox(),
-                            detection.getObjectType(),
-                            detection.getConfidenceScore(),
-                            currentTime
-                    );
-                    activeThreats.add(newThreat);
-                }
-            }
+    private static double centreY(int y, int height) {
+        return y + height / 2.0;
+    }
+
+    private void addTrack(DetectionBatch detections, int d, long currentTime) {
+        if (trackCount == trackIds.length) {
+            growTracks();
         }
+        trackIds[trackCount] = nextTrackId++;
+        classIds[trackCount] = detections.getClassId(d);
+        confidences[trackCount] = detections.getConfidence(d);
+        lastSeenTimes[trackCount] = currentTime;
+        setBox(trackCount, detections, d);
+        trackCount++;
 
-        cleanupOldThreats(currentTime);
+        for (int l = 0; l < trackListeners.size(); l++) {
+            trackListeners.get(l).onTrackStarted(trackIds[trackCount - 1], detections.get(d), currentTime);
+        }
     }
 
-    private ThreatInfo findMatchingThreat(DetectionResult detection) {
-        Rect newBox = detection.getBoundingBox();
-        double newCenterX = newBox.x + newBox.width / 2.0;
-        double newCenterY = newBox.y + newBox.height / 2.0;
+    private void setBox(int t, DetectionBatch detections, int d) {
+        boxX[t] = detections.getX(d);
+        boxY[t] = detections.getY(d);
+        boxWidth[t] = detections.getWidth(d);
+        boxHeight[t] = detections.getHeight(d);
+    }
 
-        for (ThreatInfo threat : activeThreats) {
-            if (!threat.getObjectType().equals(detection.getObjectType())) {
-                continue;
-            }
-            Rect existingBox = threat.getBoundingBox();
-            double existingCenterX = existingBox.x + existingBox.width / 2.0;
-            double existingCenterY = existingBox.y + existingBox.height / 2.0;
+    private void growTracks() {
+        int newCapacity = trackIds.length * 2;
+        trackIds = Arrays.copyOf(trackIds, newCapacity);
+        classIds = Arrays.copyOf(classIds, newCapacity);
+        boxX = Arrays.copyOf(boxX, newCapacity);
+        boxY = Arrays.copyOf(boxY, newCapacity);
+        boxWidth = Arrays.copyOf(boxWidth, newCapacity);
+        boxHeight = Arrays.copyOf(boxHeight, newCapacity);
+        confidences = Arrays.copyOf(confidences, newCapacity);
+        lastSeenTimes = Arrays.copyOf(lastSeenTimes, newCapacity);
+    }
 
-            double distance = Math.sqrt(
-                    Math.pow(newCenterX - existingCenterX, 2) +
-                            Math.pow(newCenterY - existingCenterY, 2)
-            );
+    private void growPairs() {
+        int newCapacity = packedPairs.length * 2;
+        packedPairs = Arrays.copyOf(packedPairs, newCapacity);
+        pairDetections = Arrays.copyOf(pairDetections, newCapacity);
+        pairTracks = Arrays.copyOf(pairTracks, newCapacity);
+    }
 
-            if (distance < DetectionConfig.THREAT_MATCHING_DISTANCE) {
-                return threat;
+    public void getActiveThreats(DetectionBatch results) {
+        getActiveThreats(System.currentTimeMillis(), results);
+    }
+
+    // Replaces the contents of results with the tracks seen within the timeout.
+    public void getActiveThreats(long currentTime, DetectionBatch results) {
+        results.clear();
+        for (int t = 0; t < trackCount; t++) {
+            if ((currentTime - lastSeenTimes[t]) < timeoutMs) {
+                results.add(classIds[t], boxX[t], boxY[t], boxWidth[t], boxHeight[t], (float) confidences[t]);
             }
         }
-
-        return null;
     }
 
-    public List<DetectionResult> getActiveThreats() {
-        long currentTime = System.currentTimeMillis();
-        List<DetectionResult> results = new ArrayList<>();
+    public boolean hasActiveThreats() {
+        return hasActiveThreats(System.currentTimeMillis());
+    }
 
-        for (ThreatInfo threat : activeThreats) {
-            if ((currentTime - threat.getLastSeenTime()) < timeoutMs) {
-                DetectionResult result = new DetectionResult(
-                        threat.getObjectType(),
-                        threat.getBoundingBox(),
-                        threat.getConfidence()
-                );
-                results.add(result);
+    public boolean hasActiveThreats(long currentTime) {
+        for (int t = 0; t < trackCount; t++) {
+            if ((currentTime - lastSeenTimes[t]) < timeoutMs) {
+                return true;
             }
         }
+        return false;
+    }
 
-        return results;
+    public int getTrackCount() {
+        return trackCount;
     }
 
     private void cleanupOldThreats(long currentTime) {
-        activeThreats.removeIf(threat -> (currentTime - threat.getLastSeenTime()) >= timeoutMs);
+        int kept = 0;
+        for (int t = 0; t < trackCount; t++) {
+            if ((currentTime - lastSeenTimes[t]) >= timeoutMs) {
+                notifyExpired(t, currentTime);
+                continue;
+            }
+            if (kept != t) {
+                trackIds[kept] = trackIds[t];
+                classIds[kept] = classIds[t];
+                boxX[kept] = boxX[t];
+                boxY[kept] = boxY[t];
+                boxWidth[kept] = boxWidth[t];
+                boxHeight[kept] = boxHeight[t];
+                confidences[kept] = confidences[t];
+                lastSeenTimes[kept] = lastSeenTimes[t];
+            }
+            kept++;
+        }
+        trackCount = kept;
+    }
+
+    private void notifyExpired(int t, long currentTime) {
+        if (trackListeners.isEmpty()) {
+            return;
+        }
+        expiredTrack.clear();
+        expiredTrack.add(classIds[t], boxX[t], boxY[t], boxWidth[t], boxHeight[t], (float) confidences[t]);
+        for (int l = 0; l < trackListeners.size(); l++) {
+            trackListeners.get(l).onTrackExpired(trackIds[t], expiredTrack.get(0), currentTime);
+        }
     }
 
     public void clearAllThreats() {
-        activeThreats.clear();
+        trackCount = 0;
     }
-}
\ No newline at end of file
+}
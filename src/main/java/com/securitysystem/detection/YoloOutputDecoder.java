@@ -0,0 +1,78 @@
+package com.securitysystem.detection;
+
+import org.opencv.core.Mat;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Darknet region-layer layout: one row per anchor box of [cx, cy, w, h, objectness, class scores...], with the box
+// normalised to the frame.
+public class YoloOutputDecoder extends OutputDecoder {
+    private static final int OBJECTNESS_COLUMN = 4;
+    private static final int FIRST_CLASS_COLUMN = 5;
+
+    private float[][] outputBuffers;
+
+    public YoloOutputDecoder(float confidenceThreshold, float nmsThreshold) {
+        super(confidenceThreshold, nmsThreshold);
+        this.outputBuffers = new float[0][];
+    }
+
+    // Region layers emit [rows, 5 + classes] for a single image and [batch, rows, 5 + classes] for a batch.
+    // Each output is flattened to 2D and only the requested image's rows are copied out in one JNI call.
+    @Override
+    protected void decodeCandidates(List<Mat> resultMats, int imageIndex, int batchSize,
+                                    int frameWidth, int frameHeight, int inputSize) {
+        if (outputBuffers.length < resultMats.size()) {
+            outputBuffers = Arrays.copyOf(outputBuffers, resultMats.size());
+        }
+
+        for (int outputIndex = 0; outputIndex < resultMats.size(); outputIndex++) {
+            Mat output = resultMats.get(outputIndex);
+            int cols = output.size(output.dims() - 1);
+            int totalRows = (int) (output.total() / cols);
+            int rowsPerImage = totalRows / batchSize;
+
+            float[] buffer = outputBuffers[outputIndex];
+            if (buffer == null || buffer.length != rowsPerImage * cols) {
+                buffer = new float[rowsPerImage * cols];
+                outputBuffers[outputIndex] = buffer;
+            }
+
+            Mat flattened = output.reshape(1, totalRows);
+            flattened.get(imageIndex * rowsPerImage, 0, buffer);
+            flattened.release();
+
+            decodeRows(buffer, rowsPerImage, cols, frameWidth, frameHeight);
+        }
+    }
+
+    private void decodeRows(float[] buffer, int rows, int cols, int frameWidth, int frameHeight) {
+        float threshold = confidenceThreshold;
+
+        for (int row = 0, base = 0; row < rows; row++, base += cols) {
+            // Class scores are already scaled by objectness, so a weak objectness rules out every class.
+            if (buffer[base + OBJECTNESS_COLUMN] <= threshold) {
+                continue;
+            }
+
+            int bestClass = 0;
+            float bestScore = buffer[base + FIRST_CLASS_COLUMN];
+            for (int col = base + FIRST_CLASS_COLUMN + 1, classId = 1; col < base + cols; col++, classId++) {
+                float score = buffer[col];
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestClass = classId;
+                }
+            }
+
+            if (bestScore > threshold) {
+                double width = buffer[base + 2] * frameWidth;
+                double height = buffer[base + 3] * frameHeight;
+                double x = buffer[base] * frameWidth - width / 2;
+                double y = buffer[base + 1] * frameHeight - height / 2;
+                addCandidate(x, y, width, height, bestScore, bestClass);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.securitysystem.detection;
+
+import org.opencv.core.Mat;
+
+import java.util.Arrays;
+import java.util.List;
+
+// YOLOv8 ONNX layout: a single [batch, 4 + classes, anchors] output, attribute-major, with no objectness column and
+// boxes as [cx, cy, w, h] in network input pixels.
+public class YoloV8OutputDecoder extends OutputDecoder {
+    private static final int FIRST_CLASS_ROW = 4;
+
+    private float[] outputBuffer;
+    private float[] bestScores;
+    private int[] bestClasses;
+
+    public YoloV8OutputDecoder(float confidenceThreshold, float nmsThreshold) {
+        super(confidenceThreshold, nmsThreshold);
+        this.outputBuffer = new float[0];
+        this.bestScores = new float[0];
+        this.bestClasses = new int[0];
+    }
+
+    @Override
+    protected void decodeCandidates(List<Mat> resultMats, int imageIndex, int batchSize,
+                                    int frameWidth, int frameHeight, int inputSize) {
+        Mat output = resultMats.get(0);
+        int anchors = output.size(output.dims() - 1);
+        int attributes = output.size(output.dims() - 2);
+        int classes = attributes - FIRST_CLASS_ROW;
+
+        if (outputBuffer.length != attributes * anchors) {
+            outputBuffer = new float[attributes * anchors];
+        }
+        if (bestScores.length != anchors) {
+            bestScores = new float[anchors];
+            bestClasses = new int[anchors];
+        }
+
+        Mat flattened = output.reshape(1, batchSize * attributes);
+        flattened.get(imageIndex * attributes, 0, outputBuffer);
+        flattened.release();
+
+        // Walk the class rows in memory order rather than striding down each anchor's column.
+        System.arraycopy(outputBuffer, FIRST_CLASS_ROW * anchors, bestScores, 0, anchors);
+        Arrays.fill(bestClasses, 0);
+        for (int classId = 1; classId < classes; classId++) {
+            int base = (FIRST_CLASS_ROW + classId) * anchors;
+            for (int anchor = 0; anchor < anchors; anchor++) {
+                float score = outputBuffer[base + anchor];
+                if (score > bestScores[anchor]) {
+                    bestScores[anchor] = score;
+                    bestClasses[anchor] = classId;
+                }
+            }
+        }
+
+        double scaleX = (double) frameWidth / inputSize;
+        double scaleY = (double) frameHeight / inputSize;
+        for (int anchor = 0; anchor < anchors; anchor++) {
+            if (bestScores[anchor] <= confidenceThreshold) {
+                continue;
+            }
+            double width = outputBuffer[2 * anchors + anchor] * scaleX;
+            double height = outputBuffer[3 * anchors + anchor] * scaleY;
+            double x = outputBuffer[anchor] * scaleX - width / 2;
+            double y = outputBuffer[anchors + anchor] * scaleY - height / 2;
+            addCandidate(x, y, width, height, bestScores[anchor], bestClasses[anchor]);
+        }
+    }
+}
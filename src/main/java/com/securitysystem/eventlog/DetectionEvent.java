@@ -0,0 +1,67 @@
+package com.securitysystem.eventlog;
+
+import org.opencv.core.Rect;
+
+public class DetectionEvent {
+    private final long timestamp;
+    private final EventType eventType;
+    private final String sourceName;
+    private final String objectType;
+    private final long trackId;
+    private final float confidence;
+    private final Rect boundingBox;
+    private final boolean threat;
+
+    public DetectionEvent(long timestamp, EventType eventType, String sourceName, String objectType,
+                          long trackId, float confidence, Rect boundingBox, boolean threat) {
+        this.timestamp = timestamp;
+        this.eventType = eventType;
+        this.sourceName = sourceName;
+        this.objectType = objectType;
+        this.trackId = trackId;
+        this.confidence = confidence;
+        this.boundingBox = boundingBox;
+        this.threat = threat;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public EventType getEventType() {
+        return eventType;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public String getObjectType() {
+        return objectType;
+    }
+
+    // Zero for raw detections, which do not belong to a track.
+    public long getTrackId() {
+        return trackId;
+    }
+
+    public float getConfidence() {
+        return confidence;
+    }
+
+    public Rect getBoundingBox() {
+        return boundingBox;
+    }
+
+    public boolean isThreat() {
+        return threat;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d %s %s %s track=%d conf=%.2f box=%d,%d %dx%d%s",
+                timestamp, eventType, sourceName, objectType, trackId, confidence,
+                boundingBox.x, boundingBox.y, boundingBox.width, boundingBox.height,
+                threat ? " THREAT" : "");
+    }
+}
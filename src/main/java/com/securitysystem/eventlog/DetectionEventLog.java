@@ -0,0 +1,205 @@
+package com.securitysystem.eventlog;
+
+import com.securitysystem.detection.DetectionBatch;
+import com.securitysystem.detection.DetectionClasses;
+import com.securitysystem.detection.DetectionResult;
+import com.securitysystem.motion.DetectionConfig;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+// Append-only binary log of detections and threat-track transitions, shared by every pipeline.
+// Appends are a handful of puts into a mapped buffer; segments rotate when full and the oldest are deleted
+// beyond the retention limit.
+public class DetectionEventLog {
+    private static final Logger LOGGER = Logger.getLogger(DetectionEventLog.class.getName());
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".evlog";
+    static final String CLASSES_FILE = "classes.txt";
+    static final String SOURCES_FILE = "sources.txt";
+    private static final int UNMAPPED = -2;
+    private static final long FLUSH_SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final int blockRecords;
+    private final int maxSegments;
+    private final NameDictionary classNames;
+    private final NameDictionary sourceNames;
+    private final EventLogReader reader;
+    private final ExecutorService flushExecutor;
+    private final List<Path> segmentPaths;
+    private int[] logClassIds;
+    private EventLogSegment activeSegment;
+    private long nextSegmentNumber;
+    private boolean closed;
+
+    public DetectionEventLog(Path directory, int segmentCapacity, int blockRecords, int maxSegments) throws IOException {
+        if (segmentCapacity < 1 || blockRecords < 1 || maxSegments < 1) {
+            throw new IllegalArgumentException("Event log sizes must be positive");
+        }
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        this.blockRecords = blockRecords;
+        this.maxSegments = maxSegments;
+
+        Files.createDirectories(directory);
+        this.classNames = new NameDictionary(directory.resolve(CLASSES_FILE));
+        this.sourceNames = new NameDictionary(directory.resolve(SOURCES_FILE));
+        this.reader = new EventLogReader(directory, classNames, sourceNames);
+        this.flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-log-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.segmentPaths = listSegments(directory);
+        this.nextSegmentNumber = segmentPaths.isEmpty() ? 0 : segmentNumber(segmentPaths.get(segmentPaths.size() - 1)) + 1;
+        this.logClassIds = new int[0];
+        this.closed = false;
+        rotate();
+    }
+
+    public DetectionEventLog() throws IOException {
+        this(Paths.get(DetectionConfig.EVENT_LOG_DIRECTORY),
+                DetectionConfig.EVENT_LOG_SEGMENT_RECORDS,
+                DetectionConfig.EVENT_LOG_BLOCK_RECORDS,
+                DetectionConfig.EVENT_LOG_MAX_SEGMENTS);
+    }
+
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path entry : entries) {
+                segments.add(entry);
+            }
+        }
+        // Segment numbers are zero-padded, so name order is append order.
+        segments.sort(null);
+        return segments;
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Sources are registered once per pipeline so appends only carry the id.
+    public int registerSource(String sourceName) {
+        try {
+            return sourceNames.idOf(sourceName);
+        } catch (IOException e) {
+            LOGGER.warning("Unable to record event log source " + sourceName + ": " + e.getMessage());
+            return NameDictionary.UNKNOWN_ID;
+        }
+    }
+
+    public synchronized void appendDetections(int sourceId, DetectionBatch detections, long timestamp) {
+        for (int row = 0; row < detections.size(); row++) {
+            append(sourceId, EventType.DETECTION, 0, detections.getClassId(row),
+                    detections.getX(row), detections.getY(row), detections.getWidth(row), detections.getHeight(row),
+                    detections.getConfidence(row), detections.isThreat(row), timestamp);
+        }
+    }
+
+    public synchronized void appendTrackEvent(int sourceId, EventType eventType, long trackId,
+                                              DetectionResult detection, long timestamp) {
+        append(sourceId, eventType, trackId, detection.getClassId(),
+                detection.getX(), detection.getY(), detection.getWidth(), detection.getHeight(),
+                (float) detection.getConfidenceScore(), detection.isThreat(), timestamp);
+    }
+
+    private void append(int sourceId, EventType eventType, long trackId, int classId, int x, int y, int width, int height,
+                        float confidence, boolean threat, long timestamp) {
+        if (closed) {
+            return;
+        }
+        try {
+            if (activeSegment.isFull()) {
+                rotate();
+            }
+            activeSegment.append(timestamp, trackId, sourceId, logClassId(classId),
+                    eventType, threat, confidence, x, y, width, height);
+        } catch (IOException e) {
+            LOGGER.severe("Event log append failed: " + e.getMessage());
+        }
+    }
+
+    // The log keeps its own class dictionary so its ids stay stable across runs; this caches the mapping from the
+    // process-wide detection class ids.
+    private int logClassId(int classId) throws IOException {
+        if (classId >= logClassIds.length) {
+            int oldLength = logClassIds.length;
+            logClassIds = Arrays.copyOf(logClassIds, Math.max(classId + 1, oldLength * 2));
+            Arrays.fill(logClassIds, oldLength, logClassIds.length, UNMAPPED);
+        }
+        if (logClassIds[classId] == UNMAPPED) {
+            logClassIds[classId] = classNames.idOf(DetectionClasses.nameOf(classId));
+        }
+        return logClassIds[classId];
+    }
+
+    // Forcing a full segment to disk takes long enough to stall every pipeline appending behind the lock, so it is
+    // left to the flush thread; nothing writes to a segment once it has been rotated out.
+    private void rotate() throws IOException {
+        if (activeSegment != null) {
+            flushExecutor.execute(activeSegment::force);
+        }
+
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentNumber++, SEGMENT_SUFFIX));
+        activeSegment = EventLogSegment.create(path, segmentCapacity, blockRecords);
+        segmentPaths.add(path);
+
+        while (segmentPaths.size() > maxSegments) {
+            Path oldest = segmentPaths.remove(0);
+            Files.deleteIfExists(oldest);
+            LOGGER.info("Deleted expired event log segment " + oldest.getFileName());
+        }
+    }
+
+    // Events with fromTime <= timestamp < toTime; a null source or object type matches any.
+    public List<DetectionEvent> query(long fromTime, long toTime, String sourceName, String objectType) {
+        List<DetectionEvent> events = new ArrayList<>();
+        query(fromTime, toTime, sourceName, objectType, events::add);
+        return events;
+    }
+
+    // Only the snapshot of the segment list and active count is taken under the lock; appends continue during the scan.
+    public void query(long fromTime, long toTime, String sourceName, String objectType, Consumer<DetectionEvent> consumer) {
+        List<Path> paths;
+        EventLogSegment active;
+        int activeCount;
+        synchronized (this) {
+            paths = new ArrayList<>(segmentPaths);
+            active = activeSegment;
+            activeCount = activeSegment.getCount();
+        }
+        reader.query(paths, active, activeCount, fromTime, toTime, sourceName, objectType, consumer);
+    }
+
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        activeSegment.force();
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(FLUSH_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warning("Event log segments still flushing at close");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
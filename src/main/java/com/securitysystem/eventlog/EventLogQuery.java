@@ -0,0 +1,46 @@
+package com.securitysystem.eventlog;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+// Command-line query over an event log directory, e.g. all knife detections on camera 3 between 02:00 and 03:00:
+//   EventLogQuery events 2024-05-01T02:00 2024-05-01T03:00 "Camera 3" knife
+public class EventLogQuery {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: EventLogQuery <directory> <from> <to> [source|*] [objectType|*]");
+            System.err.println("Times are epoch milliseconds or local date-times such as 2024-05-01T02:00");
+            System.exit(2);
+        }
+
+        long fromTime = parseTime(args[1]);
+        long toTime = parseTime(args[2]);
+        String sourceName = args.length > 3 && !"*".equals(args[3]) ? args[3] : null;
+        String objectType = args.length > 4 && !"*".equals(args[4]) ? args[4] : null;
+
+        // Queries only read existing segments; the writer side is not opened, so this is safe next to a live system.
+        long[] matches = new long[1];
+        EventLogReader reader = new EventLogReader(Paths.get(args[0]));
+        reader.query(fromTime, toTime, sourceName, objectType, event -> {
+            System.out.println(event);
+            matches[0]++;
+        });
+        System.err.println(matches[0] + " event(s)");
+    }
+
+    private static long parseTime(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (DateTimeParseException invalid) {
+                throw new IllegalArgumentException("Invalid time: " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.securitysystem.eventlog;
+
+import org.opencv.core.Rect;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Read-only access to an event log directory. Segments still being written by another process are read up to the
+// record count published in their header.
+public class EventLogReader {
+    private final Path directory;
+    private final NameDictionary classNames;
+    private final NameDictionary sourceNames;
+
+    public EventLogReader(Path directory) throws IOException {
+        this(directory,
+                new NameDictionary(directory.resolve(DetectionEventLog.CLASSES_FILE)),
+                new NameDictionary(directory.resolve(DetectionEventLog.SOURCES_FILE)));
+    }
+
+    EventLogReader(Path directory, NameDictionary classNames, NameDictionary sourceNames) {
+        this.directory = directory;
+        this.classNames = classNames;
+        this.sourceNames = sourceNames;
+    }
+
+    // Events with fromTime <= timestamp < toTime; a null source or object type matches any.
+    public List<DetectionEvent> query(long fromTime, long toTime, String sourceName, String objectType) throws IOException {
+        List<DetectionEvent> events = new ArrayList<>();
+        query(fromTime, toTime, sourceName, objectType, events::add);
+        return events;
+    }
+
+    public void query(long fromTime, long toTime, String sourceName, String objectType,
+                      Consumer<DetectionEvent> consumer) throws IOException {
+        query(DetectionEventLog.listSegments(directory), null, 0, fromTime, toTime, sourceName, objectType, consumer);
+    }
+
+    // The active segment, if given, is read from the writer's own mapping up to activeCount records.
+    void query(List<Path> segmentPaths, EventLogSegment active, int activeCount, long fromTime, long toTime,
+               String sourceName, String objectType, Consumer<DetectionEvent> consumer) {
+        int sourceId = sourceName != null ? sourceNames.find(sourceName) : NameDictionary.UNKNOWN_ID;
+        int classId = objectType != null ? classNames.find(objectType) : NameDictionary.UNKNOWN_ID;
+        if ((sourceName != null && sourceId == NameDictionary.UNKNOWN_ID) ||
+                (objectType != null && classId == NameDictionary.UNKNOWN_ID)) {
+            return;
+        }
+
+        EventLogSegment.RecordVisitor visitor = (buffer, offset) -> {
+            if ((sourceId == NameDictionary.UNKNOWN_ID || buffer.getInt(offset + EventLogSegment.RECORD_SOURCE_ID) == sourceId) &&
+                    (classId == NameDictionary.UNKNOWN_ID || buffer.getShort(offset + EventLogSegment.RECORD_CLASS_ID) == classId)) {
+                consumer.accept(readEvent(buffer, offset));
+            }
+        };
+        long classMask = EventLogSegment.idMask(classId);
+        long sourceMask = EventLogSegment.idMask(sourceId);
+
+        for (Path path : segmentPaths) {
+            EventLogSegment segment;
+            int count;
+            if (active != null && path.equals(active.getPath())) {
+                segment = active;
+                count = activeCount;
+            } else {
+                try {
+                    segment = EventLogSegment.openReadOnly(path);
+                } catch (IOException e) {
+                    // Deleted by retention since the listing, or not a segment.
+                    continue;
+                }
+                count = segment.getCount();
+            }
+
+            if (segment.overlaps(fromTime, toTime)) {
+                segment.scan(count, fromTime, toTime, classMask, sourceMask, visitor);
+            }
+        }
+    }
+
+    private DetectionEvent readEvent(ByteBuffer buffer, int offset) {
+        return new DetectionEvent(
+                buffer.getLong(offset + EventLogSegment.RECORD_TIMESTAMP),
+                EventType.fromCode(buffer.get(offset + EventLogSegment.RECORD_EVENT_TYPE)),
+                sourceNames.nameOf(buffer.getInt(offset + EventLogSegment.RECORD_SOURCE_ID)),
+                classNames.nameOf(buffer.getShort(offset + EventLogSegment.RECORD_CLASS_ID)),
+                buffer.getLong(offset + EventLogSegment.RECORD_TRACK_ID),
+                buffer.getFloat(offset + EventLogSegment.RECORD_CONFIDENCE),
+                new Rect(buffer.getInt(offset + EventLogSegment.RECORD_X),
+                        buffer.getInt(offset + EventLogSegment.RECORD_Y),
+                        buffer.getInt(offset + EventLogSegment.RECORD_WIDTH),
+                        buffer.getInt(offset + EventLogSegment.RECORD_HEIGHT)),
+                (buffer.get(offset + EventLogSegment.RECORD_FLAGS) & EventLogSegment.FLAG_THREAT) != 0);
+    }
+}
@@ -0,0 +1,191 @@
+package com.securitysystem.eventlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// One memory-mapped segment file of fixed-width records.
+//
+// Layout: a 64-byte header, then one 32-byte summary per block of records (min/max timestamp plus class and source
+// bitmasks), then the records themselves. Records are appended in arrival order, which is only roughly time order
+// across cameras, so queries use the per-block min/max rather than binary searching the records.
+class EventLogSegment {
+    static final int RECORD_SIZE = 48;
+
+    private static final int MAGIC = 0x4445564C;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int BLOCK_SUMMARY_SIZE = 32;
+
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_RECORD_SIZE = 8;
+    private static final int HEADER_CAPACITY = 12;
+    private static final int HEADER_BLOCK_RECORDS = 16;
+    private static final int HEADER_COUNT = 20;
+    private static final int HEADER_MIN_TIME = 24;
+    private static final int HEADER_MAX_TIME = 32;
+
+    private static final int BLOCK_MIN_TIME = 0;
+    private static final int BLOCK_MAX_TIME = 8;
+    private static final int BLOCK_CLASS_MASK = 16;
+    private static final int BLOCK_SOURCE_MASK = 24;
+
+    static final int RECORD_TIMESTAMP = 0;
+    static final int RECORD_TRACK_ID = 8;
+    static final int RECORD_SOURCE_ID = 16;
+    static final int RECORD_CLASS_ID = 20;
+    static final int RECORD_EVENT_TYPE = 22;
+    static final int RECORD_FLAGS = 23;
+    static final int RECORD_CONFIDENCE = 24;
+    static final int RECORD_X = 28;
+    static final int RECORD_Y = 32;
+    static final int RECORD_WIDTH = 36;
+    static final int RECORD_HEIGHT = 40;
+
+    static final int FLAG_THREAT = 1;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int blockRecords;
+    private final int dataOffset;
+    private int count;
+
+    private EventLogSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+
+        if (buffer.getInt(HEADER_MAGIC) != MAGIC || buffer.getInt(HEADER_VERSION) != VERSION ||
+                buffer.getInt(HEADER_RECORD_SIZE) != RECORD_SIZE) {
+            throw new IOException("Not an event log segment: " + path);
+        }
+        this.capacity = buffer.getInt(HEADER_CAPACITY);
+        this.blockRecords = buffer.getInt(HEADER_BLOCK_RECORDS);
+        this.dataOffset = dataOffset(capacity, blockRecords);
+        this.count = buffer.getInt(HEADER_COUNT);
+    }
+
+    private static int blockCount(int capacity, int blockRecords) {
+        return (capacity + blockRecords - 1) / blockRecords;
+    }
+
+    private static int dataOffset(int capacity, int blockRecords) {
+        return HEADER_SIZE + blockCount(capacity, blockRecords) * BLOCK_SUMMARY_SIZE;
+    }
+
+    static EventLogSegment create(Path path, int capacity, int blockRecords) throws IOException {
+        long size = dataOffset(capacity, blockRecords) + (long) capacity * RECORD_SIZE;
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+        buffer.putInt(HEADER_CAPACITY, capacity);
+        buffer.putInt(HEADER_BLOCK_RECORDS, blockRecords);
+        buffer.putInt(HEADER_COUNT, 0);
+        buffer.putLong(HEADER_MIN_TIME, Long.MAX_VALUE);
+        buffer.putLong(HEADER_MAX_TIME, Long.MIN_VALUE);
+        return new EventLogSegment(path, buffer);
+    }
+
+    static EventLogSegment openReadOnly(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new EventLogSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    // The record is written before the count is published, so a reader never sees a partial record.
+    void append(long timestamp, long trackId, int sourceId, int classId, EventType eventType, boolean threat,
+                float confidence, int x, int y, int width, int height) {
+        int record = dataOffset + count * RECORD_SIZE;
+        buffer.putLong(record + RECORD_TIMESTAMP, timestamp);
+        buffer.putLong(record + RECORD_TRACK_ID, trackId);
+        buffer.putInt(record + RECORD_SOURCE_ID, sourceId);
+        buffer.putShort(record + RECORD_CLASS_ID, (short) classId);
+        buffer.put(record + RECORD_EVENT_TYPE, eventType.code());
+        buffer.put(record + RECORD_FLAGS, (byte) (threat ? FLAG_THREAT : 0));
+        buffer.putFloat(record + RECORD_CONFIDENCE, confidence);
+        buffer.putInt(record + RECORD_X, x);
+        buffer.putInt(record + RECORD_Y, y);
+        buffer.putInt(record + RECORD_WIDTH, width);
+        buffer.putInt(record + RECORD_HEIGHT, height);
+
+        int block = HEADER_SIZE + (count / blockRecords) * BLOCK_SUMMARY_SIZE;
+        if (count % blockRecords == 0) {
+            buffer.putLong(block + BLOCK_MIN_TIME, timestamp);
+            buffer.putLong(block + BLOCK_MAX_TIME, timestamp);
+            buffer.putLong(block + BLOCK_CLASS_MASK, 0L);
+            buffer.putLong(block + BLOCK_SOURCE_MASK, 0L);
+        }
+        buffer.putLong(block + BLOCK_MIN_TIME, Math.min(buffer.getLong(block + BLOCK_MIN_TIME), timestamp));
+        buffer.putLong(block + BLOCK_MAX_TIME, Math.max(buffer.getLong(block + BLOCK_MAX_TIME), timestamp));
+        buffer.putLong(block + BLOCK_CLASS_MASK, buffer.getLong(block + BLOCK_CLASS_MASK) | idMask(classId));
+        buffer.putLong(block + BLOCK_SOURCE_MASK, buffer.getLong(block + BLOCK_SOURCE_MASK) | idMask(sourceId));
+
+        buffer.putLong(HEADER_MIN_TIME, Math.min(buffer.getLong(HEADER_MIN_TIME), timestamp));
+        buffer.putLong(HEADER_MAX_TIME, Math.max(buffer.getLong(HEADER_MAX_TIME), timestamp));
+        buffer.putInt(HEADER_COUNT, ++count);
+    }
+
+    // Ids share bits modulo 64, so a set bit means "may contain"; a clear bit rules the block out.
+    static long idMask(int id) {
+        return id < 0 ? -1L : 1L << (id & 63);
+    }
+
+    boolean overlaps(long fromTime, long toTime) {
+        return count > 0 && buffer.getLong(HEADER_MIN_TIME) < toTime && buffer.getLong(HEADER_MAX_TIME) >= fromTime;
+    }
+
+    // Visits the records in [fromTime, toTime) that match the masks, skipping whole blocks using their summaries.
+    // recordCount bounds the scan to records published before the caller's snapshot of the count.
+    void scan(int recordCount, long fromTime, long toTime, long classMask, long sourceMask, RecordVisitor visitor) {
+        ByteBuffer view = buffer.duplicate();
+
+        for (int first = 0; first < recordCount; first += blockRecords) {
+            int block = HEADER_SIZE + (first / blockRecords) * BLOCK_SUMMARY_SIZE;
+            if (view.getLong(block + BLOCK_MIN_TIME) >= toTime ||
+                    view.getLong(block + BLOCK_MAX_TIME) < fromTime ||
+                    (view.getLong(block + BLOCK_CLASS_MASK) & classMask) == 0 ||
+                    (view.getLong(block + BLOCK_SOURCE_MASK) & sourceMask) == 0) {
+                continue;
+            }
+
+            int last = Math.min(first + blockRecords, recordCount);
+            for (int r = first; r < last; r++) {
+                int record = dataOffset + r * RECORD_SIZE;
+                long timestamp = view.getLong(record + RECORD_TIMESTAMP);
+                if (timestamp >= fromTime && timestamp < toTime) {
+                    visitor.visit(view, record);
+                }
+            }
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    interface RecordVisitor {
+        void visit(ByteBuffer buffer, int offset);
+    }
+}
@@ -0,0 +1,18 @@
+package com.securitysystem.eventlog;
+
+public enum EventType {
+    DETECTION,
+    TRACK_STARTED,
+    TRACK_UPDATED,
+    TRACK_EXPIRED;
+
+    private static final EventType[] VALUES = values();
+
+    public static EventType fromCode(int code) {
+        return VALUES[code];
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+}
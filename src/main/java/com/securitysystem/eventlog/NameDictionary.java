@@ -0,0 +1,56 @@
+package com.securitysystem.eventlog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Maps names to small integer ids for the fixed-width records. Persisted one name per line, the line number
+// being the id, so the ids stay stable across restarts and readers can decode old segments.
+class NameDictionary {
+    static final int UNKNOWN_ID = -1;
+
+    private final Path file;
+    private final List<String> names;
+    private final Map<String, Integer> ids;
+
+    NameDictionary(Path file) throws IOException {
+        this.file = file;
+        this.names = new ArrayList<>();
+        this.ids = new HashMap<>();
+
+        if (Files.exists(file)) {
+            for (String name : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                ids.put(name, names.size());
+                names.add(name);
+            }
+        }
+    }
+
+    synchronized int idOf(String name) throws IOException {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        Files.write(file, (name + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        ids.put(name, names.size());
+        names.add(name);
+        return names.size() - 1;
+    }
+
+    synchronized int find(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : UNKNOWN_ID;
+    }
+
+    synchronized String nameOf(int id) {
+        return id >= 0 && id < names.size() ? names.get(id) : "?";
+    }
+}
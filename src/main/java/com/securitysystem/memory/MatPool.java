@@ -0,0 +1,61 @@
+package com.securitysystem.memory;
+
+import org.opencv.core.Mat;
+
+import java.util.ArrayDeque;
+
+// Recycles frame-sized Mats so the steady-state frame loop stops calling malloc/free for every frame.
+public class MatPool {
+    private final ArrayDeque<Mat> freeMats;
+    private final int maxPooled;
+    private boolean closed;
+
+    public MatPool(int maxPooled) {
+        this.freeMats = new ArrayDeque<>(maxPooled);
+        this.maxPooled = maxPooled;
+    }
+
+    public synchronized Mat acquire(int rows, int cols, int type) {
+        while (!freeMats.isEmpty()) {
+            Mat mat = freeMats.pollFirst();
+            if (mat.rows() == rows && mat.cols() == cols && mat.type() == type) {
+                return mat;
+            }
+            dispose(mat);
+        }
+
+        MatTracker.allocated();
+        return new Mat(rows, cols, type);
+    }
+
+    public Mat copyOf(Mat source) {
+        Mat copy = acquire(source.rows(), source.cols(), source.type());
+        source.copyTo(copy);
+        return copy;
+    }
+
+    // Mats still out when the pool is cleared are freed as they come back rather than pooled again.
+    public synchronized void release(Mat mat) {
+        if (!closed && freeMats.size() < maxPooled) {
+            freeMats.addLast(mat);
+        } else {
+            dispose(mat);
+        }
+    }
+
+    public synchronized int getPooledCount() {
+        return freeMats.size();
+    }
+
+    public synchronized void clear() {
+        closed = true;
+        while (!freeMats.isEmpty()) {
+            dispose(freeMats.pollFirst());
+        }
+    }
+
+    private void dispose(Mat mat) {
+        mat.release();
+        MatTracker.released();
+    }
+}
@@ -0,0 +1,41 @@
+package com.securitysystem.memory;
+
+import org.opencv.core.Mat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Collects per-call native Mats and releases them together. A scope can be reused after close().
+public class MatScope implements AutoCloseable {
+    private final List<Mat> trackedMats;
+
+    public MatScope() {
+        this.trackedMats = new ArrayList<>();
+    }
+
+    public <T extends Mat> T track(T mat) {
+        trackedMats.add(mat);
+        MatTracker.allocated();
+        return mat;
+    }
+
+    public <T extends Mat> List<T> trackAll(List<T> mats) {
+        for (T mat : mats) {
+            track(mat);
+        }
+        return mats;
+    }
+
+    public Mat newMat() {
+        return track(new Mat());
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0; i < trackedMats.size(); i++) {
+            trackedMats.get(i).release();
+            MatTracker.released();
+        }
+        trackedMats.clear();
+    }
+}
@@ -0,0 +1,58 @@
+package com.securitysystem.memory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+public class MatTracker {
+    private static final Logger LOGGER = Logger.getLogger(MatTracker.class.getName());
+
+    private static volatile boolean enabled = false;
+    private static final AtomicLong liveMats = new AtomicLong();
+    private static final AtomicLong peakLiveMats = new AtomicLong();
+    private static final AtomicLong totalAllocated = new AtomicLong();
+
+    private MatTracker() {
+    }
+
+    public static void setEnabled(boolean debugEnabled) {
+        enabled = debugEnabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void allocated() {
+        if (!enabled) {
+            return;
+        }
+        long live = liveMats.incrementAndGet();
+        totalAllocated.incrementAndGet();
+        peakLiveMats.accumulateAndGet(live, Math::max);
+    }
+
+    public static void released() {
+        if (enabled) {
+            liveMats.decrementAndGet();
+        }
+    }
+
+    public static long getLiveCount() {
+        return liveMats.get();
+    }
+
+    public static long getPeakLiveCount() {
+        return peakLiveMats.get();
+    }
+
+    public static long getTotalAllocated() {
+        return totalAllocated.get();
+    }
+
+    public static void logStatus(String context) {
+        if (enabled) {
+            LOGGER.info(String.format("[%s] Live native Mats: %d (peak %d, total allocated %d)",
+                    context, getLiveCount(), getPeakLiveCount(), getTotalAllocated()));
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.securitysystem.motion;
 
+import com.securitysystem.camera.FrameSinkType;
+import com.securitysystem.camera.ReplayMode;
+import com.securitysystem.core.DropPolicy;
+import com.securitysystem.detection.DetectorBackend;
+import org.opencv.dnn.Dnn;
+import org.opencv.videoio.Videoio;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -10,16 +17,73 @@ public class DetectionConfig {
     public static final double VARIANCE_THRESHOLD = 30.0;
     public static final boolean SHADOW_DETECTION = false;
     public static final double MIN_CONTOUR_AREA = 5000.0;
+    public static final double MOTION_SCALE = 0.25; // motion runs on a grayscale copy downscaled by this factor
 
     // ===== YOLO OBJECT DETECTION =====
+    public static final String YOLO_MODEL_DIRECTORY = "src/main/yolomodels";
     public static final int YOLO_INPUT_SIZE = 416;
+    public static final boolean MODEL_WARMUP_ENABLED = true;
+    public static final int MODEL_WARMUP_INPUT_SIZE = YOLO_INPUT_SIZE;
     public static final float CONFIDENCE_THRESHOLD = 0.5f;
     public static final float NMS_THRESHOLD = 0.7f;
     public static final int DETECTION_FRAME_SKIP = 5;
+    public static final int INFERENCE_MAX_BATCH_SIZE = 4;
+    public static final long INFERENCE_BATCH_MAX_WAIT_MS = 5;
+
+    // ===== DETECTOR BACKEND =====
+    public static final DetectorBackend DETECTOR_BACKEND = DetectorBackend.DARKNET;
+    public static final int DNN_BACKEND = Dnn.DNN_BACKEND_OPENCV;
+    public static final int DNN_TARGET = Dnn.DNN_TARGET_CPU;
+    // Process-wide, shared by every replica. -1 keeps OpenCV's default of one thread per core for a single replica
+    // and splits the cores evenly across a pool.
+    public static final int OPENCV_THREADS = -1;
+    public static final int DETECTOR_POOL_SIZE = 1; // detector replicas, each with its own Net and worker thread
+    public static final int DETECTION_PIPELINE_DEPTH = 2; // frames a live pipeline may have in inference at once
+    public static final String ONNX_MODEL_PATH = "src/main/yolomodels/yolov8n.onnx";
+    public static final String ONNX_CLASS_NAMES_PATH = YOLO_MODEL_DIRECTORY + "/coco.names";
+    public static final int ONNX_INPUT_SIZE = 640;
+    public static final boolean ONNX_DYNAMIC_INPUT = false;
+    public static final int ONNX_MAX_BATCH_SIZE = 1;
+    public static final float CASCADE_SCREENING_CONFIDENCE = 0.2f;
+
+    // ===== HOT-RELOADABLE TUNING =====
+    // Optional properties file overriding the knobs in TuningSettings; edits apply without a restart.
+    public static final boolean TUNING_HOT_RELOAD_ENABLED = true;
+    public static final String TUNING_FILE = "tuning.properties";
+    public static final long TUNING_RELOAD_SETTLE_MS = 200;
+
+    // ===== MOTION GATING =====
+    public static final boolean MOTION_GATING_ENABLED = true;
+    public static final long BURST_DURATION_MS = 3000;
+    public static final long HEARTBEAT_INTERVAL_MS = 2000;
+
+    // ===== LOAD CONTROL =====
+    public static final boolean ADAPTIVE_LOAD_CONTROL_ENABLED = true;
+    public static final long TARGET_LATENCY_MS = 150;
+    public static final double CPU_BUDGET = 0.75;
+    public static final long LOAD_CONTROL_INTERVAL_MS = 1000;
+    public static final int LOAD_BACKOFF_INTERVALS = 2;
+    public static final int LOAD_RESTORE_INTERVALS = 5;
+    public static final double LOAD_RESTORE_HEADROOM = 0.6;
+
+    // ===== ROI INFERENCE =====
+    // Detect on native-resolution crops around motion instead of the downscaled frame when that is cheaper.
+    // When disabled the load controller still switches it on at its cheaper quality levels.
+    public static final boolean ROI_INFERENCE_ENABLED = true;
+    public static final int ROI_PADDING = 32;
+    public static final int ROI_MIN_INPUT_SIZE = 160;
+    public static final int ROI_MAX_CROPS = 4;
+
+    // ===== INTER-FRAME TRACKING =====
+    public static final boolean INTER_FRAME_TRACKING_ENABLED = true;
+    public static final double KALMAN_PROCESS_NOISE = 2.0e5;
+    public static final double KALMAN_MEASUREMENT_NOISE = 25.0;
+    public static final long TRACKING_MAX_EXTRAPOLATION_MS = 1000;
 
     // ===== THREAT DETECTION =====
     public static final ArrayList<String> THREAT_OBJECTS = new ArrayList<>(Arrays.asList("knife", "scissors"));
-    public static final long THREAT_TIMEOUT_MS = 0;
+    public static final ArrayList<String> CASCADE_ESCALATION_CLASSES = THREAT_OBJECTS;
+    public static final long THREAT_TIMEOUT_MS = 3000;
     public static final double THREAT_MATCHING_DISTANCE = 100.0;
 
     // ===== CAMERA =====
@@ -27,9 +91,64 @@ public class DetectionConfig {
     public static final int CAMERA_HEIGHT = 480;
     public static final int CAMERA_FPS = 30;
     public static final int CAMERA_INDEX = 0;
+    public static final int CAMERA_BUFFER_SIZE = 1; // frames the driver may queue ahead of us
+    public static final String CAMERA_FOURCC = "MJPG"; // empty keeps the driver's default pixel format
+    public static final int CAMERA_HW_ACCELERATION = Videoio.VIDEO_ACCELERATION_ANY;
+    public static final long CAMERA_FRAME_TIMEOUT_MS = 1000;
+    public static final int CAMERA_MAX_GRAB_FAILURES = 5;
+    public static final long CAMERA_RECONNECT_INITIAL_MS = 500;
+    public static final long CAMERA_RECONNECT_MAX_MS = 30000;
+    public static final int[] CAMERA_INDICES = {CAMERA_INDEX};
+
+    // ===== RECORDED SOURCES =====
+    public static final ReplayMode REPLAY_MODE = ReplayMode.UNTHROTTLED;
+    public static final double IMAGE_SEQUENCE_FPS = 15.0;
+
+    // ===== PIPELINE =====
+    public static final int DETECTION_QUEUE_CAPACITY = 1;
+    public static final int DISPLAY_QUEUE_CAPACITY = 2;
+    public static final DropPolicy DETECTION_DROP_POLICY = DropPolicy.LATEST_WINS;
+    public static final DropPolicy DISPLAY_DROP_POLICY = DropPolicy.LATEST_WINS;
+    public static final long STAGE_POLL_TIMEOUT_MS = 100;
+
+    // ===== PERFORMANCE =====
+    public static final int FPS_WINDOW_SECONDS = 5;
+
+    // ===== NATIVE MEMORY =====
+    public static final int FRAME_POOL_SIZE = 8;
+    public static final boolean MAT_LEAK_DEBUG = false;
+
+    // ===== RECORDING =====
+    public static final boolean CLIP_RECORDING_ENABLED = true;
+    public static final String CLIP_DIRECTORY = "recordings";
+    public static final long PRE_ROLL_SECONDS = 30;
+    public static final long POST_ROLL_SECONDS = 10;
+    public static final long PRE_ROLL_MAX_BYTES = 64L * 1024 * 1024;
+    public static final int CLIP_JPEG_QUALITY = 75;
+    public static final int RECORDER_QUEUE_CAPACITY = 4;
+
+    // ===== EVENT LOG =====
+    public static final boolean EVENT_LOG_ENABLED = true;
+    public static final String EVENT_LOG_DIRECTORY = "events";
+    public static final int EVENT_LOG_SEGMENT_RECORDS = 1 << 20;
+    public static final int EVENT_LOG_BLOCK_RECORDS = 1024;
+    public static final int EVENT_LOG_MAX_SEGMENTS = 64;
+
+    // ===== ALERTS =====
+    public static final boolean ALERTS_ENABLED = true;
+    public static final int ALERT_QUEUE_CAPACITY = 256;
+    public static final long ALERT_UPDATE_INTERVAL_MS = 30_000;
+    public static final String ALERT_FILE = "alerts.jsonl";
+    public static final String ALERT_WEBHOOK_URL = "";
+    public static final long ALERT_WEBHOOK_TIMEOUT_MS = 2000;
 
     // ===== DISPLAY =====
     public static final int FLASH_CYCLE_FRAMES = 20;
+    public static final FrameSinkType FRAME_SINK_TYPE = FrameSinkType.SWING;
+    public static final String MJPEG_BIND_ADDRESS = "127.0.0.1";
+    public static final int MJPEG_BASE_PORT = 8081;
+    public static final int MJPEG_ENCODER_THREADS = 2;
+    public static final int MJPEG_JPEG_QUALITY = 80;
 
     private DetectionConfig() {
     }
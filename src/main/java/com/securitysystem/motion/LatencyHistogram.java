@@ -0,0 +1,91 @@
+package com.securitysystem.motion;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-memory, lock-free log-linear histogram of nanosecond latencies.
+// Values are kept at microsecond granularity (ns >> 10). Below 32us every microsecond gets its own bucket; above that
+// each power of two is split into 16 sub-buckets, so any recorded value is reported within ~6% of its true value.
+public class LatencyHistogram {
+    private static final int UNIT_SHIFT = 10;
+    private static final int LINEAR_BUCKETS = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int LINEAR_MAGNITUDE = 5;
+    private static final int MAX_MAGNITUDE = 63 - UNIT_SHIFT;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_MAGNITUDE - LINEAR_MAGNITUDE + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount;
+    private final AtomicLong maxValue;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new AtomicLong();
+        this.maxValue = new AtomicLong();
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value >>> UNIT_SHIFT));
+        totalCount.incrementAndGet();
+
+        long currentMax = maxValue.get();
+        while (value > currentMax && !maxValue.compareAndSet(currentMax, value)) {
+            currentMax = maxValue.get();
+        }
+    }
+
+    private static int bucketIndex(long units) {
+        if (units < LINEAR_BUCKETS) {
+            return (int) units;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(units);
+        int subBucket = (int) (units >>> (magnitude - 4)) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (magnitude - LINEAR_MAGNITUDE) * SUB_BUCKETS + subBucket;
+    }
+
+    // Upper bound of a bucket, in nanoseconds.
+    private static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return ((long) index + 1) << UNIT_SHIFT;
+        }
+        int offset = index - LINEAR_BUCKETS;
+        int magnitude = offset / SUB_BUCKETS + LINEAR_MAGNITUDE;
+        long subBucket = offset % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << (magnitude - 4)) << UNIT_SHIFT;
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxNanos() {
+        return maxValue.get();
+    }
+
+    // Concurrent recording may move the totals slightly while this walks the buckets; the result is still a valid bound.
+    public long getPercentileNanos(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        maxValue.set(0);
+    }
+}
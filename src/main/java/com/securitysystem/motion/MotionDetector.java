@@ -1,67 +1,159 @@
 package com.securitysystem.motion;
 
+import com.securitysystem.memory.MatScope;
 import org.opencv.video.BackgroundSubtractorMOG2;
 import org.opencv.video.Video;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.imgproc.Imgproc;
-import org.opencv.core.MatOfPoint;
 import org.opencv.core.Size;
 
-import java.util.ArrayList;
-
+// MOG2 background subtraction on a downscaled grayscale copy of the frame. Connected components of the cleaned-up
+// foreground mask become primitive regions scaled back to frame coordinates, so no contour objects are built and the
+// per-pixel work shrinks with the square of the scale.
 public class MotionDetector {
+    private static final int STATS_COLUMNS = 5;
+    private static final int FOREGROUND_VALUE = 255;
 
     private final BackgroundSubtractorMOG2 backgroundSubtractor;
+    private final double scale;
+    private final boolean shadowDetection;
+    private final Size scaledSize;
+    private final MatScope buffers;
+    private final Mat scaledMat;
+    private final Mat grayMat;
     private final Mat foregroundMaskMat;
     private final Mat cleanedUpMat;
+    private final Mat kernel;
+    private final Mat labels;
+    private final Mat stats;
+    private final Mat centroids;
+    private final MotionRegions regions;
+    private int[] statsBuffer;
+    private double minContourArea;
 
-    public MotionDetector() {
+    public MotionDetector(double scale) {
+        if (scale <= 0 || scale > 1) {
+            throw new IllegalArgumentException("Motion scale must be in (0, 1]: " + scale);
+        }
+        this.scale = scale;
+        this.shadowDetection = DetectionConfig.SHADOW_DETECTION;
         backgroundSubtractor = Video.createBackgroundSubtractorMOG2(
                 DetectionConfig.MOG2_HISTORY,
                 DetectionConfig.VARIANCE_THRESHOLD,
-                DetectionConfig.SHADOW_DETECTION
+                shadowDetection
         );
-        foregroundMaskMat = new Mat();
-        cleanedUpMat = new Mat();
+        scaledSize = new Size();
+        buffers = new MatScope();
+        scaledMat = buffers.newMat();
+        grayMat = buffers.newMat();
+        foregroundMaskMat = buffers.newMat();
+        cleanedUpMat = buffers.newMat();
+        kernel = buffers.track(Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(3,3)));
+        labels = buffers.newMat();
+        stats = buffers.newMat();
+        centroids = buffers.newMat();
+        regions = new MotionRegions();
+        statsBuffer = new int[0];
+        minContourArea = DetectionConfig.MIN_CONTOUR_AREA;
     }
 
-    public boolean detectMotion(Mat frameMat) {
-        ArrayList<MatOfPoint> contours = getMotionContours(frameMat);
-        return !contours.isEmpty();
+    public MotionDetector() {
+        this(DetectionConfig.MOTION_SCALE);
+    }
+
+    // The MOG2 setters keep the learned background, so retuning does not restart the learning period.
+    public void setHistory(int history) {
+        backgroundSubtractor.setHistory(history);
     }
 
-    public ArrayList<MatOfPoint> getMotionContours(Mat frameMat) {
-        ArrayList<MatOfPoint> allContours = new ArrayList<>();
-        ArrayList<MatOfPoint> motionDetectedContours = new ArrayList<>();
+    public void setVarianceThreshold(double varianceThreshold) {
+        backgroundSubtractor.setVarThreshold(varianceThreshold);
+    }
+
+    // In full-frame pixels; compared against each region's area scaled back up.
+    public void setMinContourArea(double minContourArea) {
+        this.minContourArea = minContourArea;
+    }
 
-        if(frameMat.empty()) {
-            return motionDetectedContours;
+    public boolean detectMotion(Mat frameMat) {
+        return !detect(frameMat).isEmpty();
+    }
+
+    // The returned regions are reused by the next call.
+    public MotionRegions detect(Mat frameMat) {
+        regions.clear();
+        if (frameMat.empty()) {
+            return regions;
         }
 
-        backgroundSubtractor.apply(frameMat, foregroundMaskMat);
+        Mat gray = toScaledGray(frameMat);
+        backgroundSubtractor.apply(gray, foregroundMaskMat);
 
-        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(3,3));
-        Imgproc.erode(foregroundMaskMat, cleanedUpMat, kernel);
+        // With shadow detection on, shadows are marked at half intensity; only full foreground counts as motion.
+        Mat mask = foregroundMaskMat;
+        if (shadowDetection) {
+            Imgproc.threshold(foregroundMaskMat, cleanedUpMat, FOREGROUND_VALUE - 1, FOREGROUND_VALUE, Imgproc.THRESH_BINARY);
+            mask = cleanedUpMat;
+        }
+        Imgproc.erode(mask, cleanedUpMat, kernel);
         Imgproc.dilate(cleanedUpMat, cleanedUpMat, kernel);
-        Imgproc.findContours(cleanedUpMat, allContours, new Mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
 
-        for (MatOfPoint contour: allContours) {
-            if (Imgproc.contourArea(contour) >= DetectionConfig.MIN_CONTOUR_AREA) {
-                motionDetectedContours.add(contour);
-            }
+        int componentCount = Imgproc.connectedComponentsWithStats(cleanedUpMat, labels, stats, centroids, 8, CvType.CV_32S);
+        collectRegions(componentCount, gray.cols(), gray.rows(), frameMat.cols(), frameMat.rows());
+        return regions;
+    }
+
+    private Mat toScaledGray(Mat frameMat) {
+        Mat source = frameMat;
+        if (scale < 1) {
+            scaledSize.width = Math.max(1, Math.round(frameMat.cols() * scale));
+            scaledSize.height = Math.max(1, Math.round(frameMat.rows() * scale));
+            Imgproc.resize(frameMat, scaledMat, scaledSize, 0, 0, Imgproc.INTER_AREA);
+            source = scaledMat;
+        }
+        if (source.channels() == 1) {
+            return source;
+        }
+        Imgproc.cvtColor(source, grayMat, Imgproc.COLOR_BGR2GRAY);
+        return grayMat;
+    }
+
+    // Label 0 is the background. The stats rows are [left, top, width, height, area] in scaled pixels.
+    private void collectRegions(int componentCount, int scaledWidth, int scaledHeight, int frameWidth, int frameHeight) {
+        int needed = componentCount * STATS_COLUMNS;
+        if (statsBuffer.length < needed) {
+            statsBuffer = new int[needed];
         }
+        stats.get(0, 0, statsBuffer);
 
-        kernel.release();
+        double scaleX = (double) frameWidth / scaledWidth;
+        double scaleY = (double) frameHeight / scaledHeight;
+        double areaScale = scaleX * scaleY;
+        long foregroundPixels = 0;
 
-        return motionDetectedContours;
+        for (int label = 1; label < componentCount; label++) {
+            int base = label * STATS_COLUMNS;
+            int area = statsBuffer[base + Imgproc.CC_STAT_AREA];
+            foregroundPixels += area;
+
+            int frameArea = (int) Math.round(area * areaScale);
+            if (frameArea < minContourArea) {
+                continue;
+            }
+            int left = (int) (statsBuffer[base + Imgproc.CC_STAT_LEFT] * scaleX);
+            int top = (int) (statsBuffer[base + Imgproc.CC_STAT_TOP] * scaleY);
+            int right = Math.min(frameWidth, (int) Math.ceil((statsBuffer[base + Imgproc.CC_STAT_LEFT] +
+                    statsBuffer[base + Imgproc.CC_STAT_WIDTH]) * scaleX));
+            int bottom = Math.min(frameHeight, (int) Math.ceil((statsBuffer[base + Imgproc.CC_STAT_TOP] +
+                    statsBuffer[base + Imgproc.CC_STAT_HEIGHT]) * scaleY));
+            regions.add(left, top, right - left, bottom - top, frameArea);
+        }
+
+        regions.setMotionScore((double) foregroundPixels / ((long) scaledWidth * scaledHeight));
     }
 
     public void release() {
-        if (foregroundMaskMat != null) {
-            foregroundMaskMat.release();
-        }
-        if (cleanedUpMat != null) {
-            cleanedUpMat.release();
-        }
+        buffers.close();
     }
 }
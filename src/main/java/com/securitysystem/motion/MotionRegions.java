@@ -0,0 +1,87 @@
+package com.securitysystem.motion;
+
+import java.util.Arrays;
+
+// One frame's moving regions as primitive arrays in full-frame coordinates, plus the fraction of the frame that
+// changed. Owned and refilled by a MotionDetector; valid until its next detect call.
+public class MotionRegions {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] regionX;
+    private int[] regionY;
+    private int[] regionWidth;
+    private int[] regionHeight;
+    private int[] regionArea;
+    private int count;
+    private double motionScore;
+
+    public MotionRegions() {
+        this.regionX = new int[INITIAL_CAPACITY];
+        this.regionY = new int[INITIAL_CAPACITY];
+        this.regionWidth = new int[INITIAL_CAPACITY];
+        this.regionHeight = new int[INITIAL_CAPACITY];
+        this.regionArea = new int[INITIAL_CAPACITY];
+        this.count = 0;
+        this.motionScore = 0.0;
+    }
+
+    void clear() {
+        count = 0;
+        motionScore = 0.0;
+    }
+
+    void add(int x, int y, int width, int height, int area) {
+        if (count == regionX.length) {
+            int newCapacity = count * 2;
+            regionX = Arrays.copyOf(regionX, newCapacity);
+            regionY = Arrays.copyOf(regionY, newCapacity);
+            regionWidth = Arrays.copyOf(regionWidth, newCapacity);
+            regionHeight = Arrays.copyOf(regionHeight, newCapacity);
+            regionArea = Arrays.copyOf(regionArea, newCapacity);
+        }
+        regionX[count] = x;
+        regionY[count] = y;
+        regionWidth[count] = width;
+        regionHeight[count] = height;
+        regionArea[count] = area;
+        count++;
+    }
+
+    void setMotionScore(double motionScore) {
+        this.motionScore = motionScore;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getX(int region) {
+        return regionX[region];
+    }
+
+    public int getY(int region) {
+        return regionY[region];
+    }
+
+    public int getWidth(int region) {
+        return regionWidth[region];
+    }
+
+    public int getHeight(int region) {
+        return regionHeight[region];
+    }
+
+    // Foreground pixels in the region, in full-frame units.
+    public int getArea(int region) {
+        return regionArea[region];
+    }
+
+    // Fraction of the frame's pixels that are foreground, from 0 to 1, including specks too small to be regions.
+    public double getMotionScore() {
+        return motionScore;
+    }
+}
@@ -1,39 +1,200 @@
 package com.securitysystem.motion;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.logging.Logger;
 
-public class PerformanceTracker {
+// Per-stage latency histograms, sliding-window FPS and pipeline counters. Every record* method is lock-free and
+// allocation-free so it can sit on the frame path; the snapshot getters allocate and are meant for logging and JMX.
+public class PerformanceTracker implements PerformanceTrackerMXBean {
     private static final Logger LOGGER = Logger.getLogger(PerformanceTracker.class.getName());
+    private static final long SLOW_FRAME_NANOS = 100_000_000L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final double NANOS_PER_MS = 1_000_000.0;
 
-    private int frameCount;
-    private final long startTime;
-    private long lastFrameTime;
+    private final LatencyHistogram[] stageHistograms;
+    private final AtomicLong frameCount;
+    private final AtomicLong framesDropped;
+    private final AtomicLong inferencesRun;
+    private final AtomicLong inferencesSkipped;
+    private final int fpsWindowSeconds;
+    private final AtomicLongArray fpsBucketSeconds;
+    private final AtomicLongArray fpsBucketCounts;
+    private final long startNanos;
+    private long frameStartNanos;
+    private ObjectName registeredName;
+
+    public PerformanceTracker(int fpsWindowSeconds) {
+        this.stageHistograms = new LatencyHistogram[PipelineStage.values().length];
+        for (int i = 0; i < stageHistograms.length; i++) {
+            stageHistograms[i] = new LatencyHistogram();
+        }
+        this.frameCount = new AtomicLong();
+        this.framesDropped = new AtomicLong();
+        this.inferencesRun = new AtomicLong();
+        this.inferencesSkipped = new AtomicLong();
+        this.fpsWindowSeconds = fpsWindowSeconds;
+        this.fpsBucketSeconds = new AtomicLongArray(fpsWindowSeconds + 1);
+        this.fpsBucketCounts = new AtomicLongArray(fpsWindowSeconds + 1);
+        this.startNanos = System.nanoTime();
+        this.frameStartNanos = 0;
+    }
 
     public PerformanceTracker() {
-        this.frameCount = 0;
-        this.startTime = System.currentTimeMillis();
-        this.lastFrameTime = 0;
+        this(DetectionConfig.FPS_WINDOW_SECONDS);
     }
 
-    public int getFrameCount() {
-        return frameCount;
+    public void registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("com.securitysystem:type=PerformanceTracker,name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+            registeredName = objectName;
+        } catch (JMException e) {
+            LOGGER.warning("Failed to register performance MBean " + name + ": " + e.getMessage());
+        }
     }
 
+    public void unregisterMBean() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            LOGGER.warning("Failed to unregister performance MBean: " + e.getMessage());
+        }
+        registeredName = null;
+    }
+
+    // startFrame/endFrame bracket the render of one displayed frame from a single thread.
     public void startFrame() {
-        lastFrameTime = System.currentTimeMillis();
-        frameCount++;
+        frameStartNanos = System.nanoTime();
     }
 
     public void endFrame() {
-        long processingTime = System.currentTimeMillis() - lastFrameTime;
-        if (processingTime > 100) {
-            LOGGER.warning("Frame processing took " + processingTime + "ms - performance issue");
+        long endNanos = System.nanoTime();
+        long processingTime = endNanos - frameStartNanos;
+        recordStage(PipelineStage.RENDER, processingTime);
+        recordFrame(endNanos);
+
+        if (processingTime > SLOW_FRAME_NANOS) {
+            LOGGER.warning("Frame processing took " + processingTime / 1_000_000 + "ms - performance issue");
+        }
+    }
+
+    public void recordStage(PipelineStage stage, long nanos) {
+        stageHistograms[stage.ordinal()].record(nanos);
+    }
+
+    public void recordFrameDropped() {
+        framesDropped.incrementAndGet();
+    }
+
+    public void recordInferenceRun() {
+        inferencesRun.incrementAndGet();
+    }
+
+    public void recordInferenceSkipped() {
+        inferencesSkipped.incrementAndGet();
+    }
+
+    private void recordFrame(long nowNanos) {
+        frameCount.incrementAndGet();
+
+        long second = (nowNanos - startNanos) / NANOS_PER_SECOND;
+        int bucket = (int) (second % fpsBucketSeconds.length());
+        long bucketSecond = fpsBucketSeconds.get(bucket);
+        if (bucketSecond != second && fpsBucketSeconds.compareAndSet(bucket, bucketSecond, second)) {
+            fpsBucketCounts.set(bucket, 0);
         }
+        fpsBucketCounts.incrementAndGet(bucket);
     }
 
+    @Override
+    public long getFrameCount() {
+        return frameCount.get();
+    }
+
+    // Frames per second over the last complete window of seconds, or since start while the first window fills.
+    @Override
     public double getCurrentFPS() {
-        long elapsedTime = System.currentTimeMillis() - startTime;
-        double elapsedSeconds = elapsedTime / 1000.0;
-        return frameCount / elapsedSeconds;
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long currentSecond = elapsedNanos / NANOS_PER_SECOND;
+        if (currentSecond < fpsWindowSeconds) {
+            return elapsedNanos > 0 ? frameCount.get() * (double) NANOS_PER_SECOND / elapsedNanos : 0.0;
+        }
+
+        long frames = 0;
+        for (int i = 0; i < fpsBucketSeconds.length(); i++) {
+            long second = fpsBucketSeconds.get(i);
+            if (second < currentSecond && second >= currentSecond - fpsWindowSeconds) {
+                frames += fpsBucketCounts.get(i);
+            }
+        }
+        return frames / (double) fpsWindowSeconds;
+    }
+
+    @Override
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    @Override
+    public long getInferencesRun() {
+        return inferencesRun.get();
+    }
+
+    @Override
+    public long getInferencesSkipped() {
+        return inferencesSkipped.get();
+    }
+
+    public StageLatencySnapshot getStageLatency(PipelineStage stage) {
+        LatencyHistogram histogram = stageHistograms[stage.ordinal()];
+        return new StageLatencySnapshot(
+                histogram.getCount(),
+                histogram.getPercentileNanos(50.0) / NANOS_PER_MS,
+                histogram.getPercentileNanos(99.0) / NANOS_PER_MS,
+                histogram.getPercentileNanos(99.9) / NANOS_PER_MS,
+                histogram.getMaxNanos() / NANOS_PER_MS);
+    }
+
+    @Override
+    public Map<String, StageLatencySnapshot> getStageLatencies() {
+        Map<String, StageLatencySnapshot> latencies = new LinkedHashMap<>();
+        for (PipelineStage stage : PipelineStage.values()) {
+            if (stageHistograms[stage.ordinal()].getCount() > 0) {
+                latencies.put(stage.name(), getStageLatency(stage));
+            }
+        }
+        return latencies;
+    }
+
+    @Override
+    public void resetLatencies() {
+        for (LatencyHistogram histogram : stageHistograms) {
+            histogram.reset();
+        }
+    }
+
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, StageLatencySnapshot> entry : getStageLatencies().entrySet()) {
+            if (builder.length() > 0) {
+                builder.append("; ");
+            }
+            builder.append(entry.getKey()).append(' ').append(entry.getValue());
+        }
+        return builder.toString();
     }
 }
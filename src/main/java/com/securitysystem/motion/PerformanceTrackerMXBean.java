@@ -0,0 +1,20 @@
+package com.securitysystem.motion;
+
+import java.util.Map;
+
+public interface PerformanceTrackerMXBean {
+
+    long getFrameCount();
+
+    double getCurrentFPS();
+
+    long getFramesDropped();
+
+    long getInferencesRun();
+
+    long getInferencesSkipped();
+
+    Map<String, StageLatencySnapshot> getStageLatencies();
+
+    void resetLatencies();
+}
@@ -0,0 +1,13 @@
+package com.securitysystem.motion;
+
+public enum PipelineStage {
+    CAPTURE,
+    MOTION,
+    BLOB,
+    FORWARD,
+    DECODE,
+    NMS,
+    TRACKING,
+    RENDER,
+    END_TO_END
+}
@@ -0,0 +1,45 @@
+package com.securitysystem.motion;
+
+import java.beans.ConstructorProperties;
+
+public class StageLatencySnapshot {
+    private final long count;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double p999Ms;
+    private final double maxMs;
+
+    @ConstructorProperties({"count", "p50Ms", "p99Ms", "p999Ms", "maxMs"})
+    public StageLatencySnapshot(long count, double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+        this.count = count;
+        this.p50Ms = p50Ms;
+        this.p99Ms = p99Ms;
+        this.p999Ms = p999Ms;
+        this.maxMs = maxMs;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public double getP999Ms() {
+        return p999Ms;
+    }
+
+    public double getMaxMs() {
+        return maxMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("p50 %.2fms p99 %.2fms p999 %.2fms", p50Ms, p99Ms, p999Ms);
+    }
+}
@@ -0,0 +1,196 @@
+package com.securitysystem.recording;
+
+import com.securitysystem.core.DropPolicy;
+import com.securitysystem.core.FrameHandoff;
+import com.securitysystem.core.FramePacket;
+import com.securitysystem.motion.DetectionConfig;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Keeps a JPEG pre-roll of one source on its own thread and turns threat triggers into clips on disk.
+// The capture stage only hands over a retained reference to each frame; encoding and writing never run on it.
+public class ClipRecorder {
+    private static final Logger LOGGER = Logger.getLogger(ClipRecorder.class.getName());
+    private static final long NO_TRIGGER = Long.MIN_VALUE;
+    private static final long MS_PER_SECOND = 1000;
+    private static final long JOIN_TIMEOUT_MS = 2000;
+
+    private final String clipPrefix;
+    private final Path clipDirectory;
+    private final long postRollMs;
+    private final int maxPendingWrites;
+    private final FrameHandoff frameHandoff;
+    private final PreRollBuffer preRoll;
+    private final MatOfByte encodeBuffer;
+    private final MatOfInt encodeParams;
+    private final AtomicLong pendingTrigger;
+    private final AtomicLong recordUntil;
+    private ClipWriter activeClip;
+    private long clipsSaved;
+    private Thread recorderThread;
+    private volatile boolean running;
+
+    public ClipRecorder(String sourceName, DropPolicy dropPolicy) {
+        this.clipPrefix = sourceName.replaceAll("[^A-Za-z0-9._-]", "_");
+        this.clipDirectory = Paths.get(DetectionConfig.CLIP_DIRECTORY);
+        this.postRollMs = DetectionConfig.POST_ROLL_SECONDS * MS_PER_SECOND;
+
+        int preRollFrames = (int) (DetectionConfig.PRE_ROLL_SECONDS * DetectionConfig.CAMERA_FPS);
+        this.maxPendingWrites = preRollFrames + DetectionConfig.RECORDER_QUEUE_CAPACITY;
+        this.frameHandoff = new FrameHandoff(DetectionConfig.RECORDER_QUEUE_CAPACITY, dropPolicy);
+        this.preRoll = new PreRollBuffer(preRollFrames,
+                DetectionConfig.PRE_ROLL_SECONDS * MS_PER_SECOND,
+                DetectionConfig.PRE_ROLL_MAX_BYTES);
+        this.encodeBuffer = new MatOfByte();
+        this.encodeParams = new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, DetectionConfig.CLIP_JPEG_QUALITY);
+        this.pendingTrigger = new AtomicLong(NO_TRIGGER);
+        this.recordUntil = new AtomicLong(NO_TRIGGER);
+        this.clipsSaved = 0;
+        this.running = false;
+    }
+
+    public void start() {
+        try {
+            Files.createDirectories(clipDirectory);
+        } catch (IOException e) {
+            LOGGER.severe("Unable to create clip directory " + clipDirectory + " - threat clips disabled: " + e.getMessage());
+            return;
+        }
+
+        running = true;
+        recorderThread = new Thread(this::recordLoop, "clip-recorder-" + clipPrefix);
+        recorderThread.setDaemon(true);
+        recorderThread.start();
+    }
+
+    // Takes ownership of one reference on the packet.
+    public void offer(FramePacket packet) {
+        if (!running) {
+            packet.release();
+            return;
+        }
+        frameHandoff.offer(packet);
+    }
+
+    // Called when a new threat appears at the given frame timestamp; extends the clip if one is already open.
+    public void trigger(long timestamp) {
+        pendingTrigger.compareAndSet(NO_TRIGGER, timestamp);
+        recordUntil.accumulateAndGet(timestamp + postRollMs, Math::max);
+    }
+
+    private void recordLoop() {
+        while (running) {
+            FramePacket packet;
+            try {
+                packet = frameHandoff.take(DetectionConfig.STAGE_POLL_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (packet == null) {
+                if (frameHandoff.isDrained()) {
+                    break;
+                }
+                openTriggeredClip();
+                continue;
+            }
+
+            try {
+                record(packet);
+            } catch (RuntimeException e) {
+                LOGGER.severe("Clip recorder error on " + clipPrefix + ": " + e.getMessage());
+            } finally {
+                packet.release();
+            }
+        }
+
+        openTriggeredClip();
+        finishClip();
+        preRoll.clear();
+        encodeBuffer.release();
+        encodeParams.release();
+    }
+
+    private void record(FramePacket packet) {
+        Imgcodecs.imencode(".jpg", packet.getFrame(), encodeBuffer, encodeParams);
+        EncodedFrame frame = new EncodedFrame(packet.getTimestamp(), encodeBuffer.toArray());
+        preRoll.add(frame);
+
+        if (activeClip != null) {
+            activeClip.write(frame);
+        }
+        openTriggeredClip();
+
+        if (activeClip != null && frame.getTimestamp() > recordUntil.get()) {
+            finishClip();
+        }
+    }
+
+    // A new clip starts with the whole pre-roll, which already includes the newest encoded frame.
+    private void openTriggeredClip() {
+        long triggerTime = pendingTrigger.getAndSet(NO_TRIGGER);
+        if (triggerTime == NO_TRIGGER || activeClip != null) {
+            return;
+        }
+
+        Path clipPath = clipDirectory.resolve(clipPrefix + "-" + triggerTime + ".mjpeg");
+        try {
+            activeClip = new ClipWriter(clipPath, maxPendingWrites);
+        } catch (IOException e) {
+            LOGGER.severe("Unable to open threat clip " + clipPath + ": " + e.getMessage());
+            return;
+        }
+
+        LOGGER.info("Recording threat clip " + clipPath + " with " + preRoll.size() + " pre-roll frames");
+        preRoll.forEach(activeClip::write);
+    }
+
+    private void finishClip() {
+        if (activeClip == null) {
+            return;
+        }
+        activeClip.finish();
+        clipsSaved++;
+        LOGGER.info(String.format("Saved threat clip %s: %d frames, %.1f MB (%d dropped)",
+                activeClip.getClipPath(),
+                activeClip.getFramesWritten(),
+                activeClip.getBytesWritten() / (1024.0 * 1024.0),
+                activeClip.getFramesDropped()));
+        activeClip = null;
+    }
+
+    public long getClipsSaved() {
+        return clipsSaved;
+    }
+
+    // Lets the recorder drain the frames already handed over, then exit; used at the end of a recorded source.
+    public void finish() {
+        frameHandoff.finish();
+    }
+
+    public void awaitTermination() throws InterruptedException {
+        if (recorderThread != null) {
+            recorderThread.join();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        frameHandoff.close();
+        if (recorderThread != null && recorderThread != Thread.currentThread()) {
+            try {
+                recorderThread.join(JOIN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
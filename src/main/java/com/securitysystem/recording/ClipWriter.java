@@ -0,0 +1,130 @@
+package com.securitysystem.recording;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+// Appends JPEG frames to a Motion JPEG file with positional asynchronous writes; the caller never waits on the disk.
+public class ClipWriter {
+    private static final Logger LOGGER = Logger.getLogger(ClipWriter.class.getName());
+
+    private final Path clipPath;
+    private final AsynchronousFileChannel channel;
+    private final int maxPendingWrites;
+    private final AtomicInteger pendingWrites;
+    private final AtomicBoolean closed;
+    private final CompletionHandler<Integer, PendingWrite> writeHandler;
+    private volatile boolean finishRequested;
+    private volatile boolean failed;
+    private long position;
+    private int framesWritten;
+    private int framesDropped;
+
+    public ClipWriter(Path clipPath, int maxPendingWrites) throws IOException {
+        this.clipPath = clipPath;
+        this.channel = AsynchronousFileChannel.open(clipPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.maxPendingWrites = maxPendingWrites;
+        this.pendingWrites = new AtomicInteger();
+        this.closed = new AtomicBoolean(false);
+        this.writeHandler = new WriteHandler();
+        this.finishRequested = false;
+        this.failed = false;
+        this.position = 0;
+        this.framesWritten = 0;
+        this.framesDropped = 0;
+    }
+
+    // Returns false if the frame was dropped because the disk has fallen too far behind or a write failed.
+    public boolean write(EncodedFrame frame) {
+        if (failed || finishRequested || pendingWrites.get() >= maxPendingWrites) {
+            framesDropped++;
+            return false;
+        }
+
+        PendingWrite pendingWrite = new PendingWrite(ByteBuffer.wrap(frame.getJpeg()), position);
+        pendingWrites.incrementAndGet();
+        channel.write(pendingWrite.buffer, pendingWrite.offset, pendingWrite, writeHandler);
+        position += frame.getSize();
+        framesWritten++;
+        return true;
+    }
+
+    // The channel is closed once the last outstanding write completes.
+    public void finish() {
+        finishRequested = true;
+        if (pendingWrites.get() == 0) {
+            closeChannel();
+        }
+    }
+
+    private static class PendingWrite {
+        private final ByteBuffer buffer;
+        private long offset;
+
+        public PendingWrite(ByteBuffer buffer, long offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+    }
+
+    private class WriteHandler implements CompletionHandler<Integer, PendingWrite> {
+        @Override
+        public void completed(Integer written, PendingWrite pendingWrite) {
+            if (pendingWrite.buffer.hasRemaining()) {
+                pendingWrite.offset += written;
+                channel.write(pendingWrite.buffer, pendingWrite.offset, pendingWrite, this);
+                return;
+            }
+            writeDone();
+        }
+
+        @Override
+        public void failed(Throwable exc, PendingWrite pendingWrite) {
+            if (!failed) {
+                LOGGER.severe("Failed to write threat clip " + clipPath + ": " + exc.getMessage());
+            }
+            failed = true;
+            writeDone();
+        }
+    }
+
+    private void writeDone() {
+        if (pendingWrites.decrementAndGet() == 0 && finishRequested) {
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close threat clip " + clipPath + ": " + e.getMessage());
+        }
+    }
+
+    public Path getClipPath() {
+        return clipPath;
+    }
+
+    public int getFramesWritten() {
+        return framesWritten;
+    }
+
+    public int getFramesDropped() {
+        return framesDropped;
+    }
+
+    public long getBytesWritten() {
+        return position;
+    }
+}
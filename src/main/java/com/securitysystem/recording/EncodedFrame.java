@@ -0,0 +1,24 @@
+package com.securitysystem.recording;
+
+// A JPEG-compressed frame. The byte array is never modified after encoding, so it can be shared with in-flight writes.
+public class EncodedFrame {
+    private final long timestamp;
+    private final byte[] jpeg;
+
+    public EncodedFrame(long timestamp, byte[] jpeg) {
+        this.timestamp = timestamp;
+        this.jpeg = jpeg;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public byte[] getJpeg() {
+        return jpeg;
+    }
+
+    public int getSize() {
+        return jpeg.length;
+    }
+}
@@ -0,0 +1,71 @@
+package com.securitysystem.recording;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Fixed-capacity ring of the most recent encoded frames, bounded by duration, frame count and total bytes.
+public class PreRollBuffer {
+    private final EncodedFrame[] frames;
+    private final long durationMs;
+    private final long maxBytes;
+    private int head;
+    private int count;
+    private long totalBytes;
+
+    public PreRollBuffer(int maxFrames, long durationMs, long maxBytes) {
+        if (maxFrames < 1) {
+            throw new IllegalArgumentException("Pre-roll buffer must hold at least one frame");
+        }
+        this.frames = new EncodedFrame[maxFrames];
+        this.durationMs = durationMs;
+        this.maxBytes = maxBytes;
+        this.head = 0;
+        this.count = 0;
+        this.totalBytes = 0;
+    }
+
+    public void add(EncodedFrame frame) {
+        while (count > 0 && (count == frames.length ||
+                totalBytes + frame.getSize() > maxBytes ||
+                frame.getTimestamp() - oldest().getTimestamp() > durationMs)) {
+            evictOldest();
+        }
+
+        frames[(head + count) % frames.length] = frame;
+        count++;
+        totalBytes += frame.getSize();
+    }
+
+    private EncodedFrame oldest() {
+        return frames[head];
+    }
+
+    private void evictOldest() {
+        totalBytes -= frames[head].getSize();
+        frames[head] = null;
+        head = (head + 1) % frames.length;
+        count--;
+    }
+
+    // Visits the buffered frames from oldest to newest.
+    public void forEach(Consumer<EncodedFrame> action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(frames[(head + i) % frames.length]);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void clear() {
+        Arrays.fill(frames, null);
+        head = 0;
+        count = 0;
+        totalBytes = 0;
+    }
+}